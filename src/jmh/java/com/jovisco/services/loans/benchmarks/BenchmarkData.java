@@ -0,0 +1,68 @@
+package com.jovisco.services.loans.benchmarks;
+
+import java.time.LocalDateTime;
+
+import org.springframework.http.HttpStatus;
+
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.ErrorResponseDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.ResponseDto;
+import com.jovisco.services.loans.entities.Loan;
+
+/**
+ * Test data shared by the benchmarks
+ */
+final class BenchmarkData {
+
+  static final String MOBILE_NUMBER = "+122234567890";
+
+  static final String LOAN_NUMBER = "123456789012";
+
+  private BenchmarkData() {
+  }
+
+  static Loan loan() {
+    return Loan.builder()
+        .id(1L)
+        .mobileNumber(MOBILE_NUMBER)
+        .loanNumber(LOAN_NUMBER)
+        .loanType(LoansConstants.HOME_LOAN)
+        .totalLoan(10000)
+        .amountPaid(4000)
+        .outstandingAmount(6000)
+        .build();
+  }
+
+  static LoanDto loanDto() {
+    return LoanDto.builder()
+        .mobileNumber(MOBILE_NUMBER)
+        .loanNumber(LOAN_NUMBER)
+        .loanType(LoansConstants.HOME_LOAN)
+        .totalLoan(10000)
+        .amountPaid(4000)
+        .outstandingAmount(6000)
+        .build();
+  }
+
+  static CreateLoanDto createLoanDto() {
+    return new CreateLoanDto(MOBILE_NUMBER);
+  }
+
+  static ResponseDto responseDto() {
+    return ResponseDto.builder()
+        .statusCode(LoansConstants.STATUS_200)
+        .statusMessage(LoansConstants.MESSAGE_200)
+        .build();
+  }
+
+  static ErrorResponseDto errorResponseDto() {
+    return ErrorResponseDto.builder()
+        .apiPath("uri=/api/v1/loans/" + MOBILE_NUMBER)
+        .errorCode(HttpStatus.NOT_FOUND)
+        .errorMessage("Loan not found with the given input data mobile number: " + MOBILE_NUMBER)
+        .errorTime(LocalDateTime.of(2024, 7, 4, 11, 12, 13))
+        .build();
+  }
+}
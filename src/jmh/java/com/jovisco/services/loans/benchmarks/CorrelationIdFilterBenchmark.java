@@ -0,0 +1,78 @@
+package com.jovisco.services.loans.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.logging.CorrelationIdFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * Overhead of the correlation id filter per request, compared to calling the
+ * rest of the filter chain directly - with a correlation id sent by the client,
+ * and with one created by the filter. The gc profiler of the benchmark profile
+ * reports the allocation per request (gc.alloc.rate.norm).
+ *
+ * Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="CorrelationIdFilterBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CorrelationIdFilterBenchmark {
+
+  final CorrelationIdFilter correlationIdFilter = new CorrelationIdFilter();
+
+  MockHttpServletRequest requestWithCorrelationId;
+
+  MockHttpServletRequest requestWithoutCorrelationId;
+
+  MockHttpServletResponse response;
+
+  FilterChain filterChain;
+
+  @Setup
+  public void setUp(Blackhole blackhole) {
+
+    requestWithCorrelationId = new MockHttpServletRequest("GET", "/api/v1/loans/" + BenchmarkData.MOBILE_NUMBER);
+    requestWithCorrelationId.addHeader(LoansConstants.CORRELATION_ID_HEADER, "3f2a9c1e-7b4d-4e8a-9c61-0d5e2f8b7a10");
+    requestWithoutCorrelationId = new MockHttpServletRequest("GET", "/api/v1/loans/" + BenchmarkData.MOBILE_NUMBER);
+    response = new MockHttpServletResponse();
+
+    // the rest of the chain - the controller, in the application
+    filterChain = (request, response) -> blackhole.consume(request);
+  }
+
+  @Benchmark
+  public void withoutFilter() throws IOException, ServletException {
+    filterChain.doFilter(requestWithCorrelationId, response);
+  }
+
+  @Benchmark
+  public void withCorrelationId() throws IOException, ServletException {
+    correlationIdFilter.doFilter(requestWithCorrelationId, response, filterChain);
+  }
+
+  @Benchmark
+  public void withoutCorrelationId() throws IOException, ServletException {
+    correlationIdFilter.doFilter(requestWithoutCorrelationId, response, filterChain);
+  }
+}
@@ -0,0 +1,45 @@
+package com.jovisco.services.loans.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.entities.Loan;
+import com.jovisco.services.loans.mappers.LoanMapper;
+
+/**
+ * Mapping between loan entities and DTOs.
+ * 
+ * Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="LoanMapperBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanMapperBenchmark {
+
+  final Loan loan = BenchmarkData.loan();
+
+  final LoanDto loanDto = BenchmarkData.loanDto();
+
+  @Benchmark
+  public LoanDto mapToLoanDto() {
+    return LoanMapper.mapToLoanDto(loan);
+  }
+
+  @Benchmark
+  public Loan mapToLoan() {
+    return LoanMapper.mapToLoan(loanDto);
+  }
+}
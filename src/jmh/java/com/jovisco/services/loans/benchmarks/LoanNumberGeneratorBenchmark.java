@@ -0,0 +1,60 @@
+package com.jovisco.services.loans.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jovisco.services.loans.generators.BlockLoanNumberGenerator;
+
+/**
+ * Throughput of the block loan number generator compared to the former random
+ * loan numbers, single threaded and under contention. Blocks are reserved in
+ * memory, the database round trip once per block is not part of the measurement.
+ * 
+ * Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="LoanNumberGeneratorBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanNumberGeneratorBenchmark {
+
+  final AtomicLong blocks = new AtomicLong();
+
+  final BlockLoanNumberGenerator generator = new BlockLoanNumberGenerator(blocks::incrementAndGet, 1000);
+
+  @Benchmark
+  public String randomLoanNumber() {
+    return Long.toString(100000000000L + new Random().nextInt(900000000));
+  }
+
+  @Benchmark
+  public String blockLoanNumber() {
+    return generator.nextLoanNumber();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public String randomLoanNumberContended() {
+    return randomLoanNumber();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public String blockLoanNumberContended() {
+    return blockLoanNumber();
+  }
+}
@@ -0,0 +1,136 @@
+package com.jovisco.services.loans.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jovisco.services.loans.LoansApplication;
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanBalanceDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
+import com.jovisco.services.loans.services.LoansService;
+
+/**
+ * Payments posted by many threads at once - all against the same loan
+ * (loans = 1), or spread across many loans. The atomic payment is compared
+ * with the read-modify-write update clients had to do before, which loses
+ * updates under contention.
+ * 
+ * Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="LoanPaymentBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class LoanPaymentBenchmark {
+
+  static final PaymentDto PAYMENT = new PaymentDto(1);
+
+  @Param({ "1", "1000" })
+  int loans;
+
+  ConfigurableApplicationContext context;
+
+  LoansService loansService;
+
+  List<String> mobileNumbers;
+
+  List<String> loanNumbers;
+
+  @Setup
+  public void setUp() {
+
+    // dev profile runs on H2 - everything that needs other services is switched off
+    context = new SpringApplicationBuilder(LoansApplication.class)
+        .web(WebApplicationType.NONE)
+        .profiles("dev")
+        .run(
+            "--spring.datasource.url=jdbc:h2:mem:loans-payment-benchmark-" + loans + ";DB_CLOSE_ON_EXIT=FALSE",
+            "--spring.cloud.config.enabled=false",
+            "--spring.cloud.bus.enabled=false",
+            "--spring.cloud.kubernetes.enabled=false",
+            "--eureka.client.enabled=false",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.com.jovisco=info",
+            "--build.version=benchmark");
+    loansService = context.getBean(LoansService.class);
+
+    mobileNumbers = IntStream.range(0, loans)
+        .mapToObj(i -> "+1" + (10_000_000_000L + i))
+        .toList();
+    loansService.createLoans(mobileNumbers.stream().map(CreateLoanDto::new).toList());
+    loanNumbers = mobileNumbers.stream()
+        .map(mobileNumber -> loansService.fetchLoan(mobileNumber).getLoanNumber())
+        .toList();
+  }
+
+  // every iteration starts with fully outstanding loans - so payments are never rejected
+  @Setup(Level.Iteration)
+  public void resetLoans() {
+
+    for (int i = 0; i < loans; i++) {
+      loansService.updateLoan(LoanDto.builder()
+          .mobileNumber(mobileNumbers.get(i))
+          .loanNumber(loanNumbers.get(i))
+          .loanType(LoansConstants.HOME_LOAN)
+          .totalLoan(LoansConstants.NEW_LOAN_LIMIT)
+          .amountPaid(0)
+          .outstandingAmount(LoansConstants.NEW_LOAN_LIMIT)
+          .build());
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public LoanBalanceDto postPayment() {
+    return loansService.postPayment(loanNumbers.get(randomLoan()), PAYMENT);
+  }
+
+  @Benchmark
+  public boolean readModifyWrite() {
+
+    var loan = loansService.fetchLoan(mobileNumbers.get(randomLoan()));
+    var update = LoanDto.builder()
+        .mobileNumber(loan.getMobileNumber())
+        .loanNumber(loan.getLoanNumber())
+        .loanType(loan.getLoanType())
+        .totalLoan(loan.getTotalLoan())
+        .amountPaid(loan.getAmountPaid() + PAYMENT.getAmount())
+        .outstandingAmount(loan.getOutstandingAmount() - PAYMENT.getAmount())
+        .build();
+
+    return loansService.updateLoan(update);
+  }
+
+  private int randomLoan() {
+    return ThreadLocalRandom.current().nextInt(loans);
+  }
+}
@@ -0,0 +1,158 @@
+package com.jovisco.services.loans.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jovisco.services.loans.dtos.ErrorResponseDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.ResponseDto;
+import com.jovisco.services.loans.json.LoansJsonModule;
+import com.jovisco.services.loans.json.PreEncodedResponseConverter;
+
+/**
+ * Jackson serialization of the response DTOs, using an object mapper configured
+ * like the one of Spring MVC - with bean introspection, and with the
+ * hand-written serializers of LoansJsonModule. A constant response is written
+ * by the Jackson converter and by the pre-encoded one.
+ * 
+ * Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="LoansJsonBenchmark"
+ * - gc.alloc.rate.norm is the number of bytes allocated per operation
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoansJsonBenchmark {
+
+  ObjectMapper objectMapper;
+
+  ObjectMapper fastObjectMapper;
+
+  MappingJackson2HttpMessageConverter jacksonConverter;
+
+  PreEncodedResponseConverter preEncodedConverter;
+
+  final BufferedOutputMessage outputMessage = new BufferedOutputMessage();
+
+  final LoanDto loanDto = BenchmarkData.loanDto();
+
+  final ResponseDto responseDto = BenchmarkData.responseDto();
+
+  final ErrorResponseDto errorResponseDto = BenchmarkData.errorResponseDto();
+
+  byte[] loanDtoJson;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    // dates as iso strings, like the object mapper of spring boot
+    objectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    fastObjectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .modulesToInstall(new LoansJsonModule())
+        .build();
+    jacksonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+    preEncodedConverter = new PreEncodedResponseConverter(fastObjectMapper);
+    loanDtoJson = objectMapper.writeValueAsBytes(loanDto);
+  }
+
+  @Benchmark
+  public byte[] writeLoanDto() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(loanDto);
+  }
+
+  @Benchmark
+  public byte[] writeResponseDto() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(responseDto);
+  }
+
+  @Benchmark
+  public byte[] writeErrorResponseDto() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(errorResponseDto);
+  }
+
+  @Benchmark
+  public LoanDto readLoanDto() throws Exception {
+    return objectMapper.readValue(loanDtoJson, LoanDto.class);
+  }
+
+  @Benchmark
+  public byte[] writeLoanDtoFast() throws JsonProcessingException {
+    return fastObjectMapper.writeValueAsBytes(loanDto);
+  }
+
+  @Benchmark
+  public byte[] writeResponseDtoFast() throws JsonProcessingException {
+    return fastObjectMapper.writeValueAsBytes(responseDto);
+  }
+
+  @Benchmark
+  public byte[] writeErrorResponseDtoFast() throws JsonProcessingException {
+    return fastObjectMapper.writeValueAsBytes(errorResponseDto);
+  }
+
+  @Benchmark
+  public LoanDto readLoanDtoFast() throws Exception {
+    return fastObjectMapper.readValue(loanDtoJson, LoanDto.class);
+  }
+
+  @Benchmark
+  public int writeConstantResponseJackson() throws IOException {
+    outputMessage.reset();
+    jacksonConverter.write(responseDto, MediaType.APPLICATION_JSON, outputMessage);
+    return outputMessage.body.size();
+  }
+
+  @Benchmark
+  public int writeConstantResponsePreEncoded() throws IOException {
+    outputMessage.reset();
+    preEncodedConverter.write(responseDto, MediaType.APPLICATION_JSON, outputMessage);
+    return outputMessage.body.size();
+  }
+
+  // reused for every response - only the allocations of the converters are measured
+  static final class BufferedOutputMessage implements HttpOutputMessage {
+
+    final HttpHeaders headers = new HttpHeaders();
+
+    final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public ByteArrayOutputStream getBody() {
+      return body;
+    }
+
+    void reset() {
+      headers.clear();
+      body.reset();
+    }
+  }
+}
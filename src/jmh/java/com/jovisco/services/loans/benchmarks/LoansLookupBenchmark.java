@@ -0,0 +1,122 @@
+package com.jovisco.services.loans.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lookup latency by mobile number and loan number on an embedded H2 database,
+ * before (schema version 2) and after (latest schema version) the unique indexes
+ * have been added.
+ * 
+ * Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="LoansLookupBenchmark"
+ * The 10M rows variant needs a few GB of heap, see jvmArgsAppend.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class LoansLookupBenchmark {
+
+  @Param({ "10000", "1000000", "10000000" })
+  int rows;
+
+  @Param({ "false", "true" })
+  boolean indexed;
+
+  Connection connection;
+
+  PreparedStatement findByMobileNumber;
+
+  PreparedStatement findByLoanNumber;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+
+    var url = "jdbc:h2:mem:loans-lookup-" + rows + "-" + indexed + ";DB_CLOSE_DELAY=-1";
+
+    // schema as before the unique indexes, filled with test data
+    migrate(url, "2");
+    connection = DriverManager.getConnection(url, "sa", "");
+    try (var statement = connection.createStatement()) {
+      statement.executeUpdate("""
+          insert into loans (mobile_number, loan_number, loan_type, total_loan, amount_paid, outstanding_amount, created_at, created_by)
+            select concat('+1', 10000000000 + x), cast(100000000000 + x as varchar), 'Home Loan', 999999, 0, 999999, current_date, 'BENCHMARK'
+            from system_range(1, %d)
+          """.formatted(rows));
+    }
+
+    // ... and then add the unique indexes
+    if (indexed) {
+      migrate(url, "latest");
+    }
+
+    findByMobileNumber = connection.prepareStatement("select * from loans where mobile_number = ?");
+    findByLoanNumber = connection.prepareStatement("select * from loans where loan_number = ?");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+
+    try (var statement = connection.createStatement()) {
+      statement.execute("shutdown");
+    }
+  }
+
+  @Benchmark
+  public void findByMobileNumber(Blackhole blackhole) throws SQLException {
+
+    findByMobileNumber.setString(1, "+1" + (10000000000L + randomRow()));
+    consume(findByMobileNumber, blackhole);
+  }
+
+  @Benchmark
+  public void findByLoanNumber(Blackhole blackhole) throws SQLException {
+
+    findByLoanNumber.setString(1, Long.toString(100000000000L + randomRow()));
+    consume(findByLoanNumber, blackhole);
+  }
+
+  private int randomRow() {
+    return ThreadLocalRandom.current().nextInt(rows) + 1;
+  }
+
+  private void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+
+    try (var resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        blackhole.consume(resultSet.getLong("id"));
+      }
+    }
+  }
+
+  private void migrate(String url, String target) {
+
+    Flyway.configure()
+        .dataSource(url, "sa", "")
+        .target(target)
+        .load()
+        .migrate();
+  }
+}
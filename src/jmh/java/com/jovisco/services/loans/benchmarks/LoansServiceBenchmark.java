@@ -0,0 +1,127 @@
+package com.jovisco.services.loans.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jovisco.services.loans.LoansApplication;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.services.LoansService;
+
+/**
+ * Loans service operations against an embedded H2 database, with and without
+ * the loan cache.
+ * 
+ * Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="LoansServiceBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoansServiceBenchmark {
+
+  static final int LOANS = 1_000;
+
+  @Param({ "caffeine", "none" })
+  String cacheType;
+
+  ConfigurableApplicationContext context;
+
+  LoansService loansService;
+
+  List<LoanDto> loans;
+
+  final AtomicLong mobileNumbers = new AtomicLong(10_000_000_000L);
+
+  @Setup
+  public void setUp() {
+
+    // dev profile runs on H2 - everything that needs other services is switched off
+    context = new SpringApplicationBuilder(LoansApplication.class)
+        .web(WebApplicationType.NONE)
+        .profiles("dev")
+        .run(
+            "--spring.datasource.url=jdbc:h2:mem:loans-benchmark-" + cacheType + ";DB_CLOSE_ON_EXIT=FALSE",
+            "--spring.cache.type=" + cacheType,
+            "--spring.cloud.config.enabled=false",
+            "--spring.cloud.bus.enabled=false",
+            "--spring.cloud.kubernetes.enabled=false",
+            "--eureka.client.enabled=false",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.com.jovisco=info",
+            "--build.version=benchmark");
+    loansService = context.getBean(LoansService.class);
+
+    // loans to be fetched and updated
+    loansService.createLoans(IntStream.range(0, LOANS)
+        .mapToObj(i -> new CreateLoanDto(nextMobileNumber()))
+        .toList());
+    loans = IntStream.range(0, LOANS)
+        .mapToObj(i -> loansService.fetchLoan("+1" + (10_000_000_001L + i)))
+        .toList();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public LoanDto fetchLoan() {
+    return loansService.fetchLoan(randomLoan().getMobileNumber());
+  }
+
+  @Benchmark
+  public boolean updateLoan() {
+
+    var loan = randomLoan();
+    var update = LoanDto.builder()
+        .mobileNumber(loan.getMobileNumber())
+        .loanNumber(loan.getLoanNumber())
+        .loanType(loan.getLoanType())
+        .totalLoan(loan.getTotalLoan())
+        .amountPaid(ThreadLocalRandom.current().nextInt(loan.getTotalLoan()))
+        .outstandingAmount(loan.getOutstandingAmount())
+        .build();
+
+    return loansService.updateLoan(update);
+  }
+
+  @Benchmark
+  public boolean createAndDeleteLoan() {
+
+    var createLoanDto = new CreateLoanDto(nextMobileNumber());
+    loansService.createLoan(createLoanDto);
+
+    return loansService.deleteLoan(createLoanDto.getMobileNumber());
+  }
+
+  private LoanDto randomLoan() {
+    return loans.get(ThreadLocalRandom.current().nextInt(LOANS));
+  }
+
+  private String nextMobileNumber() {
+    return "+1" + mobileNumbers.incrementAndGet();
+  }
+}
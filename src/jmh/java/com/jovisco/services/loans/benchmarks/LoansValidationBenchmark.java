@@ -0,0 +1,117 @@
+package com.jovisco.services.loans.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.validation.LoanNumberValidator;
+import com.jovisco.services.loans.validation.MobileNumberValidator;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Bean validation of the request DTOs - including the mobile number and loan
+ * number constraints, for valid and invalid input - and the constraints alone,
+ * scanned by the validators and matched by the regexes they replace.
+ * 
+ * Run with: mvn -P benchmark test-compile exec:exec -Djmh.args="LoansValidationBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoansValidationBenchmark {
+
+  static final Pattern MOBILE_NUMBER_PATTERN = Pattern.compile("^\\+[1-9]{1}[0-9]{3,14}$");
+
+  static final Pattern LOAN_NUMBER_PATTERN = Pattern.compile("(^$|[0-9]{12})");
+
+  ValidatorFactory validatorFactory;
+
+  Validator validator;
+
+  final LoanDto loanDto = BenchmarkData.loanDto();
+
+  final LoanDto invalidLoanDto = BenchmarkData.loanDto();
+
+  final CreateLoanDto createLoanDto = BenchmarkData.createLoanDto();
+
+  final CreateLoanDto invalidCreateLoanDto = new CreateLoanDto("+0123");
+
+  // not final - no constant folding
+  String mobileNumber = BenchmarkData.MOBILE_NUMBER;
+
+  String loanNumber = BenchmarkData.LOAN_NUMBER;
+
+  @Setup
+  public void setUp() {
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    invalidLoanDto.setMobileNumber("INVALID");
+    invalidLoanDto.setLoanNumber("12345");
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<LoanDto>> validateLoanDto() {
+    return validator.validate(loanDto);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<LoanDto>> validateInvalidLoanDto() {
+    return validator.validate(invalidLoanDto);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CreateLoanDto>> validateCreateLoanDto() {
+    return validator.validate(createLoanDto);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<CreateLoanDto>> validateInvalidCreateLoanDto() {
+    return validator.validate(invalidCreateLoanDto);
+  }
+
+  @Benchmark
+  public boolean scanMobileNumber() {
+    return MobileNumberValidator.isMobileNumber(mobileNumber);
+  }
+
+  @Benchmark
+  public boolean matchMobileNumber() {
+    return MOBILE_NUMBER_PATTERN.matcher(mobileNumber).matches();
+  }
+
+  @Benchmark
+  public boolean scanLoanNumber() {
+    return LoanNumberValidator.isLoanNumber(loanNumber);
+  }
+
+  @Benchmark
+  public boolean matchLoanNumber() {
+    return LOAN_NUMBER_PATTERN.matcher(loanNumber).matches();
+  }
+}
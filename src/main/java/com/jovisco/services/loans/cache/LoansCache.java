@@ -0,0 +1,125 @@
+package com.jovisco.services.loans.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.cloud.bus.event.PathDestinationFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.jovisco.services.loans.datasource.ReplicaLagGuard;
+import com.jovisco.services.loans.events.LoanChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Invalidation of cached loans - loans are cached by mobile number, see
+ * {@link com.jovisco.services.loans.services.LoansServiceImpl#fetchLoan(String)}.
+ * Evictions are published as {@link LoanChangedEvent} on the Spring Cloud Bus,
+ * so that every replica evicts its local copy as well
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class LoansCache {
+
+  public static final String LOANS_CACHE = "loans";
+
+  private final CacheManager cacheManager;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final ReplicaLagGuard replicaLagGuard;
+
+  // provided by the bus - missing while the bus is disabled
+  private final ObjectProvider<Destination.Factory> destinationFactory;
+
+  @Value("${spring.cloud.bus.id:${spring.application.name}}")
+  private String busId;
+
+  /**
+   * 
+   * @param mobileNumbers mobile numbers of the loans to be evicted on all replicas
+   */
+  public void evict(String... mobileNumbers) {
+
+    var keys = Arrays.stream(mobileNumbers)
+        .filter(Objects::nonNull)
+        .distinct()
+        .toList();
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    // within a transaction, evict only once it is completed - otherwise a concurrent read could cache the old state again
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          evictEverywhere(keys);
+        }
+      });
+    } else {
+      evictEverywhere(keys);
+    }
+  }
+
+  /**
+   * 
+   * @param mobileNumbers mobile numbers of the loans to be evicted on all replicas
+   */
+  public void evict(Collection<String> mobileNumbers) {
+    evict(mobileNumbers.toArray(String[]::new));
+  }
+
+  private void evictEverywhere(List<String> mobileNumbers) {
+
+    evictLocally(mobileNumbers);
+
+    // a broker outage must not fail the write that caused the eviction - other replicas fall back to the cache TTL
+    try {
+      // no path given - delivered to every instance on the bus, like before
+      var destination = destinationFactory.getIfAvailable(PathDestinationFactory::new).getDestination(null);
+      eventPublisher.publishEvent(new LoanChangedEvent(this, busId, destination, mobileNumbers));
+    } catch (RuntimeException e) {
+      log.warn("could not publish eviction of loans {}: {}", mobileNumbers, e.getMessage());
+    }
+  }
+
+  private void evictLocally(List<String> mobileNumbers) {
+
+    // the loans must not be cached again from a replica that hasn't seen the change yet
+    replicaLagGuard.written(mobileNumbers);
+
+    var cache = cacheManager.getCache(LOANS_CACHE);
+    if (cache != null) {
+      mobileNumbers.forEach(cache::evict);
+    }
+  }
+
+  /**
+   * Receives events from other replicas - own events have already been evicted locally
+   * 
+   * @param event
+   */
+  @EventListener
+  public void onLoanChanged(LoanChangedEvent event) {
+
+    if (busId.equals(event.getOriginService())) {
+      return;
+    }
+
+    log.debug("evicting loans from {}: {}", event.getOriginService(), event.getMobileNumbers());
+    evictLocally(event.getMobileNumbers());
+  }
+}
@@ -0,0 +1,276 @@
+package com.jovisco.services.loans.cache;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.jovisco.services.loans.dtos.PortfolioSummaryDto;
+import com.jovisco.services.loans.events.LoanChangedEvent;
+import com.jovisco.services.loans.repositories.LoanTypeTotals;
+import com.jovisco.services.loans.repositories.LoansRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory totals per loan type, so the portfolio summary can be polled
+ * without hitting the loans table.
+ *
+ * Creates, updates, deletes and payments are applied as deltas once they are
+ * committed, provided they are applied within the writing transaction. Other
+ * changes - changes on other replicas and the reactive variant, which has no
+ * transactions - mark the totals as stale, and they are recomputed by the
+ * database within the refresh interval. The totals are recomputed after the
+ * resync interval in any case.
+ */
+@Slf4j
+@Component
+public class PortfolioCache {
+
+  private final LoansRepository loansRepository;
+
+  private final boolean enabled;
+
+  private final long resyncIntervalNanos;
+
+  @Value("${spring.cloud.bus.id:${spring.application.name}}")
+  private String busId;
+
+  private volatile Map<String, Totals> totals;
+
+  private volatile boolean stale = true;
+
+  private volatile long refreshedAt;
+
+  private volatile boolean refreshing;
+
+  // counts the refreshes started - a change made before the current one might already be included
+  private volatile long epoch;
+
+  // not synchronized - a virtual thread querying the totals over jdbc would pin its carrier thread
+  private final ReentrantLock refreshLock = new ReentrantLock();
+
+  public PortfolioCache(
+      LoansRepository loansRepository,
+      @Value("${loans.portfolio.in-memory.enabled:true}") boolean enabled,
+      @Value("${loans.portfolio.in-memory.resync-interval:60s}") Duration resyncInterval) {
+
+    this.loansRepository = loansRepository;
+    this.enabled = enabled;
+    this.resyncIntervalNanos = resyncInterval.toNanos();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   *
+   * @return totals for each loan type, ordered by loan type
+   */
+  public List<PortfolioSummaryDto> getSummary() {
+
+    var current = totals;
+    if (current == null) {
+      current = refresh();
+    }
+
+    return current.values().stream()
+        .map(Totals::toDto)
+        .sorted(Comparator.comparing(PortfolioSummaryDto::getLoanType))
+        .toList();
+  }
+
+  /**
+   *
+   * @param loanType          type of the created loan
+   * @param totalLoan         total loan amount of the created loan
+   * @param amountPaid        amount paid of the created loan
+   * @param outstandingAmount outstanding amount of the created loan
+   */
+  public void addLoan(String loanType, int totalLoan, int amountPaid, int outstandingAmount) {
+    apply(loanType, new Totals(loanType, 1, totalLoan, amountPaid, outstandingAmount,
+        utilisation(totalLoan, outstandingAmount)));
+  }
+
+  /**
+   *
+   * @param loanType          previous type of the deleted or updated loan
+   * @param totalLoan         previous total loan amount of the loan
+   * @param amountPaid        previous amount paid of the loan
+   * @param outstandingAmount previous outstanding amount of the loan
+   */
+  public void removeLoan(String loanType, int totalLoan, int amountPaid, int outstandingAmount) {
+    apply(loanType, new Totals(loanType, -1, -totalLoan, -amountPaid, -outstandingAmount,
+        -utilisation(totalLoan, outstandingAmount)));
+  }
+
+  /**
+   *
+   * @param loanType  type of the loan paid
+   * @param totalLoan total loan amount of the loan paid
+   * @param amount    amount paid
+   */
+  public void addPayment(String loanType, int totalLoan, int amount) {
+    apply(loanType, new Totals(loanType, 0, 0, amount, -amount, utilisation(totalLoan, -amount)));
+  }
+
+  /**
+   * Totals are recomputed with the next refresh - once the current transaction
+   * is completed
+   */
+  public void invalidate() {
+    afterCompletion(() -> stale = true);
+  }
+
+  /**
+   * Receives events from other replicas - changes on this replica have already
+   * been applied
+   *
+   * @param event
+   */
+  @EventListener
+  public void onLoanChanged(LoanChangedEvent event) {
+
+    if (!busId.equals(event.getOriginService())) {
+      stale = true;
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${loans.portfolio.in-memory.refresh-interval-ms:1000}")
+  public void refreshIfStale() {
+
+    if (enabled && totals != null && (stale || System.nanoTime() - refreshedAt > resyncIntervalNanos)) {
+      refresh();
+    }
+  }
+
+  private Map<String, Totals> refresh() {
+
+    refreshLock.lock();
+    try {
+      // changes committed while the query runs mark the totals as stale again
+      epoch++;
+      refreshing = true;
+      stale = false;
+      var refreshed = new ConcurrentHashMap<String, Totals>();
+      try {
+        for (var loanTypeTotals : loansRepository.sumByLoanType()) {
+          refreshed.put(loanTypeTotals.getLoanType(), Totals.of(loanTypeTotals));
+        }
+        totals = refreshed;
+        refreshedAt = System.nanoTime();
+      } catch (RuntimeException e) {
+        stale = true;
+        throw e;
+      } finally {
+        refreshing = false;
+      }
+
+      log.debug("portfolio totals recomputed for {} loan types", refreshed.size());
+      return refreshed;
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  private void apply(String loanType, Totals delta) {
+
+    if (!enabled) {
+      return;
+    }
+
+    // without a transaction the change is already committed - a refresh might have included it in the meantime
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      stale = true;
+      return;
+    }
+
+    // the change is not committed yet - refreshes started until now don't see it
+    var changeEpoch = epoch;
+    afterCompletion(() -> {
+      // a refresh started since then might or might not include the change
+      if (changeEpoch != epoch) {
+        stale = true;
+        return;
+      }
+      var current = totals;
+      if (current != null) {
+        // the database has no totals for a loan type without loans
+        current.merge(loanType, delta, (sum, change) -> {
+          var merged = sum.plus(change);
+          return merged.count() > 0 ? merged : null;
+        });
+      }
+      // a refresh might be running, which does not see this change yet
+      if (refreshing || current != totals) {
+        stale = true;
+      }
+    });
+  }
+
+  // within a transaction, applied only once it is committed - rolled back changes never reach the totals
+  private void afterCompletion(Runnable action) {
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          if (status == STATUS_COMMITTED) {
+            action.run();
+          }
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private static double utilisation(int totalLoan, int outstandingAmount) {
+    return totalLoan > 0 ? (double) outstandingAmount / totalLoan : 0.0;
+  }
+
+  private record Totals(
+      String loanType,
+      long count,
+      long totalLoan,
+      long amountPaid,
+      long outstandingAmount,
+      double utilisation) {
+
+    static Totals of(LoanTypeTotals loanTypeTotals) {
+      return new Totals(
+          loanTypeTotals.getLoanType(),
+          loanTypeTotals.getCount(),
+          loanTypeTotals.getTotalLoan(),
+          loanTypeTotals.getAmountPaid(),
+          loanTypeTotals.getOutstandingAmount(),
+          loanTypeTotals.getUtilisation());
+    }
+
+    Totals plus(Totals other) {
+      return new Totals(loanType, count + other.count, totalLoan + other.totalLoan, amountPaid + other.amountPaid,
+          outstandingAmount + other.outstandingAmount, utilisation + other.utilisation);
+    }
+
+    PortfolioSummaryDto toDto() {
+      return PortfolioSummaryDto.builder()
+          .loanType(loanType)
+          .count(count)
+          .totalLoan(totalLoan)
+          .amountPaid(amountPaid)
+          .outstandingAmount(outstandingAmount)
+          .averageUtilisation(count > 0 ? utilisation / count : 0.0)
+          .build();
+    }
+  }
+}
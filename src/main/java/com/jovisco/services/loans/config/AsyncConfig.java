@@ -0,0 +1,11 @@
+package com.jovisco.services.loans.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// @Async methods run on the auto-configured application task executor, which uses virtual threads
+// when spring.threads.virtual.enabled is set
+@EnableAsync
+@Configuration
+public class AsyncConfig {
+}
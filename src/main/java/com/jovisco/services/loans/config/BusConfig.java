@@ -0,0 +1,11 @@
+package com.jovisco.services.loans.config;
+
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.annotation.Configuration;
+
+import com.jovisco.services.loans.events.LoanChangedEvent;
+
+@RemoteApplicationEventScan(basePackageClasses = LoanChangedEvent.class)
+@Configuration
+public class BusConfig {
+}
@@ -0,0 +1,11 @@
+package com.jovisco.services.loans.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// the cache is consulted before a transaction is begun - cache hits need no connection
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@Configuration
+public class CacheConfig {
+}
@@ -0,0 +1,28 @@
+package com.jovisco.services.loans.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.loans.json.LoansJsonModule;
+import com.jovisco.services.loans.json.PreEncodedResponseConverter;
+
+// the module is picked up by the auto-configured object mapper, the converter goes before the jackson converter
+@ConditionalOnProperty(name = "loans.json.fast.enabled", havingValue = "true", matchIfMissing = true)
+@Configuration
+public class JsonConfig {
+
+  @Bean
+  LoansJsonModule loansJsonModule() {
+    return new LoansJsonModule();
+  }
+
+  @Bean
+  @ConditionalOnWebApplication(type = Type.SERVLET)
+  PreEncodedResponseConverter preEncodedResponseConverter(ObjectMapper objectMapper) {
+    return new PreEncodedResponseConverter(objectMapper);
+  }
+}
@@ -0,0 +1,34 @@
+package com.jovisco.services.loans.config;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Infrastructure of the reactive profile. Spring Boot backs off from the jdbc
+ * datasource as soon as an r2dbc connection factory exists - it is still needed
+ * for flyway, the loan number generator and the jpa based creation of loans.
+ */
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+@Configuration
+public class ReactiveConfig {
+
+  // tomcat is on the classpath for the servlet stack and would be preferred over netty otherwise
+  @Bean
+  NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+    return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+}
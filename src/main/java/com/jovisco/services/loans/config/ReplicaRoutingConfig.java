@@ -0,0 +1,65 @@
+package com.jovisco.services.loans.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.jovisco.services.loans.datasource.ReplicaLagGuard;
+import com.jovisco.services.loans.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Read-only transactions on a replica, see {@link ReplicaRoutingDataSource} -
+ * active as soon as loans.datasource.replica.jdbc-url is set. Primary and
+ * replica have a connection pool each, published as separate hikaricp metrics
+ * tagged with the pool name. Flyway, jpa and jdbc templates use the routing
+ * data source - outside of read-only transactions, that is the primary.
+ */
+@Profile("!reactive")
+@ConditionalOnProperty(name = "loans.datasource.replica.jdbc-url")
+@EnableConfigurationProperties(DataSourceProperties.class)
+@Configuration
+public class ReplicaRoutingConfig {
+
+  // bound like the pool spring boot would create - the prefix is taken by ReactiveConfig for the metadata
+  @Bean
+  HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties, Environment environment) {
+
+    var dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return Binder.get(environment).bindOrCreate("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+  }
+
+  // jdbc-url, username, password and pool settings like maximum-pool-size
+  @Bean
+  @ConfigurationProperties("loans.datasource.replica")
+  HikariDataSource replicaDataSource() {
+
+    var dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+    dataSource.setPoolName("replica");
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  @Bean
+  @Primary
+  DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+      ReplicaLagGuard replicaLagGuard) {
+
+    var routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagGuard);
+    routingDataSource.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
@@ -5,13 +5,26 @@ public class LoansConstants {
   private LoansConstants() {
   };
 
+  public static final String CORRELATION_ID_HEADER = "jovisco-banking-correlation-id";
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
   public static final String HOME_LOAN = "Home Loan";
   public static final int NEW_LOAN_LIMIT = 999_999;
   public static final String STATUS_200 = "200";
   public static final String MESSAGE_200 = "Request processed successfully";
   public static final String STATUS_201 = "201";
   public static final String MESSAGE_201 = "Loan created successfully";
+  public static final String STATUS_400 = "400";
+  public static final String MESSAGE_400_ALREADY_EXISTS = "Loan already exists for mobile number";
+  public static final String STATUS_409 = "409";
+  public static final String MESSAGE_409 = "Loan has been changed concurrently. Please reload and try again";
+  public static final String STATUS_412 = "412";
+  public static final String MESSAGE_412 = "Loan has been changed since it was read. Please reload and try again";
   public static final String STATUS_500 = "500";
   public static final String MESSAGE_500 = "An error occurred. Please try again, or contact the support team";
+  public static final String MOBILE_NUMBER_INDEX = "ux_loans_mobile_number";
+  public static final int BATCH_LOOKUP_SIZE = 1_000;
+  public static final int TRANSFER_CHUNK_SIZE = 500;
+  public static final int TRANSFER_MAX_ERRORS = 100;
 
 }
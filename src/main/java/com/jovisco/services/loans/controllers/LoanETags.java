@@ -0,0 +1,58 @@
+package com.jovisco.services.loans.controllers;
+
+import com.jovisco.services.loans.dtos.LoanDto;
+
+/**
+ * Strong entity tags of loans, made of loan number and version - a loan
+ * deleted and created again for the same mobile number gets a new loan number,
+ * so its tags never match the tags of the deleted loan
+ */
+final class LoanETags {
+
+  // never the version of a loan - an If-Match header without a tag of the loan fails the update
+  static final long NO_MATCH = -1;
+
+  private LoanETags() {
+  }
+
+  /**
+   * 
+   * @param loanDto
+   * @return entity tag of the loan, quoted
+   */
+  static String of(LoanDto loanDto) {
+    return of(loanDto.getLoanNumber(), loanDto.getVersion());
+  }
+
+  static String of(String loanNumber, long version) {
+    return "\"" + loanNumber + "." + version + "\"";
+  }
+
+  /**
+   * 
+   * @param ifMatch    If-Match header - '*' or a list of entity tags
+   * @param loanNumber loan to be updated
+   * @return version of the first tag of the loan, null for '*', NO_MATCH if no
+   *         tag belongs to the loan - weak tags never match
+   */
+  static Long expectedVersion(String ifMatch, String loanNumber) {
+
+    if (ifMatch.trim().equals("*")) {
+      return null;
+    }
+
+    var prefix = "\"" + loanNumber + ".";
+    for (var tag : ifMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+        try {
+          return Long.parseLong(tag, prefix.length(), tag.length() - 1, 10);
+        } catch (NumberFormatException e) {
+          // not a tag of ours
+        }
+      }
+    }
+
+    return NO_MATCH;
+  }
+}
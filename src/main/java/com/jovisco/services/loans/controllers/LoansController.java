@@ -1,6 +1,9 @@
 package com.jovisco.services.loans.controllers;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -15,14 +18,21 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.BatchItemResponseDto;
 import com.jovisco.services.loans.dtos.CreateLoanDto;
 import com.jovisco.services.loans.dtos.ErrorResponseDto;
+import com.jovisco.services.loans.dtos.LoanBalanceDto;
 import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.LoansPageDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
+import com.jovisco.services.loans.dtos.PortfolioSummaryDto;
 import com.jovisco.services.loans.dtos.ContactInfoDto;
 import com.jovisco.services.loans.dtos.ResponseDto;
+import com.jovisco.services.loans.idempotency.IdempotentRequests;
 import com.jovisco.services.loans.services.LoansService;
 
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
@@ -34,10 +44,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Tag(name = "CRUD REST APIs for Loans in Banking Microservices", description = "CRUD REST APIs to CREATE, READ, UPDATE and DELETE Loans in Banking Microservices")
+@Profile("!reactive")
 @Slf4j
 @RequiredArgsConstructor
 @RestController
@@ -47,10 +62,16 @@ public class LoansController {
 
         public static final String LOANS_PATH = "/loans";
         public static final String LOANS_MOBILENUMBER_PATH = LOANS_PATH + "/{mobileNumber}";
+        public static final String LOANS_BATCH_PATH = LOANS_PATH + "/batch";
         public static final String LOANS_VERSION_PATH = LOANS_PATH + "/version";
+        public static final String LOANS_PORTFOLIO_PATH = LOANS_PATH + "/portfolio";
+        public static final int LOANS_MAX_PAGE_SIZE = 1000;
+        public static final String LOANS_PAYMENTS_PATH = LOANS_PATH + "/{loanNumber}/payments";
 
         private final LoansService loansService;
 
+        private final IdempotentRequests idempotentRequests;
+
         private final ContactInfoDto loansContactInfoDto;
 
         private final Environment environment;
@@ -70,20 +91,64 @@ public class LoansController {
 
         @GetMapping(LOANS_MOBILENUMBER_PATH)
         public ResponseEntity<LoanDto> fetchLoan(
-                        @RequestHeader("jovisco-banking-correlation-id") String correlationId,
                         @PathVariable String mobileNumber) {
 
-                log.debug("fetchLoan started");
-
+                // logged by the access log
                 var loanDto = loansService.fetchLoan(mobileNumber);
 
-                log.debug("fetchLoan finished");
-
+                // a matching If-None-Match header is answered with 304 by spring mvc - the body isn't serialized
                 return ResponseEntity
                                 .status(HttpStatus.OK)
+                                .eTag(LoanETags.of(loanDto))
                                 .body(loanDto);
         }
 
+        @Operation(summary = "List loans", description = "List loans ordered by id, optionally filtered by loan type and outstanding amount. Pages are requested either by page number, or - for deep pages - by passing the nextCursor of the previous page as 'after'")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(schema = @Schema(implementation = LoansPageDto.class), examples = {
+                                        @ExampleObject(value = "{\"loans\": [{\"mobileNumber\": \"+122234567890\", \"loanNumber\": \"123456789012\", \"loanType\": \"Home Loan\", \"totalLoan\": 999999, \"amountPaid\": 0, \"outstandingAmount\": 999999}], \"size\": 20, \"nextCursor\": 4711}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "400", description = "HTTP Status BAD_REQUEST", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/loans\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @GetMapping(LOANS_PATH)
+        public ResponseEntity<LoansPageDto> listLoans(
+                        @RequestParam(required = false) String loanType,
+                        @RequestParam(required = false) @PositiveOrZero Integer minOutstandingAmount,
+                        @RequestParam(required = false) @PositiveOrZero Integer maxOutstandingAmount,
+                        @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+                        @RequestParam(defaultValue = "20") @Min(1) @Max(LOANS_MAX_PAGE_SIZE) int size,
+                        @RequestParam(required = false) @PositiveOrZero Long after) {
+
+                // a cursor takes precedence over the page number - it never degrades into an offset scan
+                var loans = after != null
+                                ? loansService.listLoansAfter(loanType, minOutstandingAmount, maxOutstandingAmount, after, size)
+                                : loansService.listLoans(loanType, minOutstandingAmount, maxOutstandingAmount, page, size);
+
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(loans);
+        }
+
+        @Operation(summary = "Fetch portfolio summary", description = "Totals of all loans per loan type - count, sums of total loan, amount paid and outstanding amount, and the average utilisation")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(examples = {
+                                        @ExampleObject(value = "[{\"loanType\": \"Home Loan\", \"count\": 1250, \"totalLoan\": 1249998750, \"amountPaid\": 12345678, \"outstandingAmount\": 1237653072, \"averageUtilisation\": 0.99}]") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/loans/portfolio\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @GetMapping(LOANS_PORTFOLIO_PATH)
+        public ResponseEntity<List<PortfolioSummaryDto>> fetchPortfolioSummary() {
+
+                var summary = loansService.fetchPortfolioSummary();
+
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(summary);
+        }
+
         @Operation(summary = "Create a loan", description = "Create a loan")
         @ApiResponses({
                         @ApiResponse(responseCode = "201", description = "HTTP Status CREATED", content = @Content(schema = @Schema(implementation = ResponseDto.class), examples = {
@@ -94,21 +159,47 @@ public class LoansController {
         })
 
         @PostMapping(LOANS_PATH)
-        public ResponseEntity<ResponseDto> createLoan(@Valid @RequestBody CreateLoanDto createLoanDto) {
+        public ResponseEntity<ResponseDto> createLoan(
+                        @Valid @RequestBody CreateLoanDto createLoanDto,
+                        @RequestHeader(name = LoansConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+
+                // retries with the same idempotency key get the stored response - the loan is created once
+                return idempotentRequests.process(idempotencyKey, "createLoan", createLoanDto, ResponseDto.class, () -> {
+                        // create loan
+                        loansService.createLoan(createLoanDto);
+
+                        // store mobile number in location header
+                        var headers = new HttpHeaders();
+                        headers.add("Location", LOANS_PATH + "/" + createLoanDto.getMobileNumber());
+
+                        var body = ResponseDto.builder()
+                                        .statusCode(LoansConstants.STATUS_201)
+                                        .statusMessage(LoansConstants.MESSAGE_201)
+                                        .build();
+
+                        return new ResponseEntity<ResponseDto>(body, headers, HttpStatus.CREATED);
+                });
+        }
 
-                // create loan
-                loansService.createLoan(createLoanDto);
+        @Operation(summary = "Create loans in bulk", description = "Create many loans with a single request - the result is reported for each item")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(schema = @Schema(implementation = BatchItemResponseDto.class), examples = {
+                                        @ExampleObject(value = "[{\"mobileNumber\": \"+122234567890\", \"statusCode\": \"201\", \"statusMessage\": \"Loan created successfully\"}]") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "400", description = "HTTP Status BAD_REQUEST", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/loans/batch\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
 
-                // store mobile number in location header
-                var headers = new HttpHeaders();
-                headers.add("Location", LOANS_PATH + "/" + createLoanDto.getMobileNumber());
+        @PostMapping(LOANS_BATCH_PATH)
+        public ResponseEntity<List<BatchItemResponseDto>> createLoans(
+                        @RequestBody @NotEmpty List<@Valid CreateLoanDto> createLoanDtos) {
 
-                var body = ResponseDto.builder()
-                                .statusCode(LoansConstants.STATUS_201)
-                                .statusMessage(LoansConstants.MESSAGE_201)
-                                .build();
+                // create loans - result is reported for each item
+                var results = loansService.createLoans(createLoanDtos);
 
-                return new ResponseEntity<ResponseDto>(body, headers, HttpStatus.CREATED);
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(results);
         }
 
         @Operation(summary = "Update a loan", description = "Update a loan")
@@ -117,33 +208,81 @@ public class LoansController {
                         @ApiResponse(responseCode = "400", description = "HTTP Status BAD_REQUEST", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
                         @ApiResponse(responseCode = "404", description = "HTTP Status NOT_FOUND", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
                                         @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/loans/+122234567890\", \"errorCode\": \"404\", \"errorMessage\": \"Loan not found ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "409", description = "HTTP Status CONFLICT - loan has been changed concurrently"),
+                        @ApiResponse(responseCode = "412", description = "HTTP Status PRECONDITION_FAILED - loan no longer matches the If-Match header"),
                         @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
                                         @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/loans\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
         })
 
         @PutMapping(LOANS_PATH)
-        public ResponseEntity<ResponseDto> updateLoan(@Valid @RequestBody LoanDto loanDto) {
+        public ResponseEntity<ResponseDto> updateLoan(
+                        @Valid @RequestBody LoanDto loanDto,
+                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-                var isUpdated = loansService.updateLoan(loanDto);
+                // with an If-Match header only the version the client has read is updated
+                var expectedVersion = ifMatch != null ? LoanETags.expectedVersion(ifMatch, loanDto.getLoanNumber()) : null;
+                var isUpdated = expectedVersion != null
+                                ? loansService.updateLoan(loanDto, expectedVersion)
+                                : loansService.updateLoan(loanDto);
 
                 if (isUpdated) {
-                        return ResponseEntity
-                                        .status(HttpStatus.OK)
+                        // the conditional update has incremented the expected version
+                        var response = ResponseEntity.status(HttpStatus.OK);
+                        if (expectedVersion != null) {
+                                response.eTag(LoanETags.of(loanDto.getLoanNumber(), expectedVersion + 1));
+                        }
+                        return response
                                         .body(ResponseDto.builder()
                                                         .statusCode(LoansConstants.STATUS_200)
                                                         .statusMessage(LoansConstants.MESSAGE_200)
                                                         .build());
+                } else if (expectedVersion != null) {
+                        return ResponseEntity
+                                        .status(HttpStatus.PRECONDITION_FAILED)
+                                        .body(ResponseDto.builder()
+                                                        .statusCode(LoansConstants.STATUS_412)
+                                                        .statusMessage(LoansConstants.MESSAGE_412)
+                                                        .build());
                 } else {
+                        // loan has been changed or deleted since it was read
                         return ResponseEntity
-                                        .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .status(HttpStatus.CONFLICT)
                                         .body(ResponseDto.builder()
-                                                        .statusCode(LoansConstants.STATUS_500)
-                                                        .statusMessage(LoansConstants.MESSAGE_500)
+                                                        .statusCode(LoansConstants.STATUS_409)
+                                                        .statusMessage(LoansConstants.MESSAGE_409)
                                                         .build());
 
                 }
         }
 
+        @Operation(summary = "Post a payment", description = "Apply a payment to a loan atomically and return the new balance")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(schema = @Schema(implementation = LoanBalanceDto.class), examples = {
+                                        @ExampleObject(value = "{\"loanNumber\": \"123456789012\", \"amountPaid\": 13345, \"outstandingAmount\": 97765}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "400", description = "HTTP Status BAD_REQUEST - invalid amount or payment exceeds outstanding amount", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+                        @ApiResponse(responseCode = "404", description = "HTTP Status NOT_FOUND", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/loans/123456789012/payments\", \"errorCode\": \"404\", \"errorMessage\": \"Loan not found ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/loans/123456789012/payments\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+        @PostMapping(LOANS_PAYMENTS_PATH)
+        public ResponseEntity<LoanBalanceDto> postPayment(
+                        @PathVariable String loanNumber,
+                        @Valid @RequestBody PaymentDto paymentDto,
+                        @RequestHeader(name = LoansConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+
+                // retries with the same idempotency key get the stored balance - the payment is applied once
+                return idempotentRequests.process(idempotencyKey, "postPayment", List.of(loanNumber, paymentDto),
+                                LoanBalanceDto.class, () -> {
+                        // the payment is applied as a delta - clients don't need to read the loan first
+                        var balance = loansService.postPayment(loanNumber, paymentDto);
+
+                        return ResponseEntity
+                                        .status(HttpStatus.OK)
+                                        .body(balance);
+                });
+        }
+
         @Operation(summary = "Delete a loan", description = "Delete aloan by mobile number")
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "HTTP Status OK"),
@@ -0,0 +1,78 @@
+package com.jovisco.services.loans.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.jovisco.services.loans.dtos.ErrorResponseDto;
+import com.jovisco.services.loans.dtos.ImportResultDto;
+import com.jovisco.services.loans.services.LoansTransferService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@Tag(name = "Bulk transfer REST APIs for Loans in Banking Microservices", description = "REST APIs to EXPORT and IMPORT all Loans as newline-delimited JSON in Banking Microservices")
+@Profile("!reactive")
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(path = "/api/v1")
+public class LoansTransferController {
+
+        public static final String LOANS_EXPORT_PATH = LoansController.LOANS_PATH + "/export";
+        public static final String LOANS_IMPORT_PATH = LoansController.LOANS_PATH + "/import";
+
+        private final LoansTransferService loansTransferService;
+
+        @Operation(summary = "Export all loans", description = "Stream all loans as newline-delimited JSON - one loan per line")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(examples = {
+                                        @ExampleObject(value = "{\"mobileNumber\": \"+122234567890\", \"loanNumber\": \"123456789012\", \"loanType\": \"Home Loan\", \"totalLoan\": 999999, \"amountPaid\": 0, \"outstandingAmount\": 999999}") }, mediaType = MediaType.APPLICATION_NDJSON_VALUE)),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/loans/export\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @GetMapping(path = LOANS_EXPORT_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public ResponseEntity<StreamingResponseBody> exportLoans() {
+
+                // loans are written while the response is streamed - never held in memory as a whole
+                StreamingResponseBody body = loansTransferService::exportLoans;
+
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .body(body);
+        }
+
+        @Operation(summary = "Import loans", description = "Create or update loans from newline-delimited JSON - one loan per line, written in chunks. Invalid lines are rejected and reported, valid lines are imported")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "HTTP Status OK", content = @Content(schema = @Schema(implementation = ImportResultDto.class), examples = {
+                                        @ExampleObject(value = "{\"created\": 1000, \"updated\": 250, \"rejected\": 1, \"errors\": [\"line 7: loanNumber: Loan number must be 12 digits\"]}") }, mediaType = MediaType.APPLICATION_JSON_VALUE)),
+                        @ApiResponse(responseCode = "500", description = "HTTP Status INTERNAL_SERVER_ERROR", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class), examples = {
+                                        @ExampleObject(value = "{\"apiPath\": \"uri=/api/v1/loans/import\", \"errorCode\": \"500\", \"errorMessage\": \"An error occurred ...\", \"errorTime\": \"2024-07-04T11:12:13\"}") }, mediaType = MediaType.APPLICATION_JSON_VALUE))
+        })
+
+        @PostMapping(path = LOANS_IMPORT_PATH, consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+        public ResponseEntity<ImportResultDto> importLoans(InputStream inputStream) throws IOException {
+
+                var result = loansTransferService.importLoans(inputStream);
+
+                return ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(result);
+        }
+}
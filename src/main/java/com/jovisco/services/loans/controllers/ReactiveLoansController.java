@@ -0,0 +1,141 @@
+package com.jovisco.services.loans.controllers;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanBalanceDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
+import com.jovisco.services.loans.dtos.ResponseDto;
+import com.jovisco.services.loans.services.ReactiveLoansService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of the loans CRUD API in {@link LoansController} - same
+ * paths, payloads and status codes, served by WebFlux with the reactive profile
+ */
+@Tag(name = "Reactive CRUD REST APIs for Loans in Banking Microservices", description = "Non-blocking REST APIs to CREATE, READ, UPDATE and DELETE Loans in Banking Microservices")
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(path = "/api/v1", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ReactiveLoansController {
+
+        private final ReactiveLoansService reactiveLoansService;
+
+        @Value("${build.version}")
+        private String buildVersion;
+
+        @Operation(summary = "Fetch a single loan by the customer's mobile number", description = "Fetch data from loan for a given mobile number")
+        @GetMapping(LoansController.LOANS_MOBILENUMBER_PATH)
+        public Mono<ResponseEntity<LoanDto>> fetchLoan(
+                        @PathVariable String mobileNumber) {
+
+                // a matching If-None-Match header is answered with 304 by webflux
+                return reactiveLoansService.fetchLoan(mobileNumber)
+                                .map(loanDto -> ResponseEntity
+                                                .status(HttpStatus.OK)
+                                                .eTag(LoanETags.of(loanDto))
+                                                .body(loanDto));
+        }
+
+        @Operation(summary = "Create a loan", description = "Create a loan")
+        @PostMapping(LoansController.LOANS_PATH)
+        public Mono<ResponseEntity<ResponseDto>> createLoan(@Valid @RequestBody CreateLoanDto createLoanDto) {
+
+                var body = ResponseDto.builder()
+                                .statusCode(LoansConstants.STATUS_201)
+                                .statusMessage(LoansConstants.MESSAGE_201)
+                                .build();
+
+                // store mobile number in location header
+                return reactiveLoansService.createLoan(createLoanDto)
+                                .thenReturn(ResponseEntity
+                                                .status(HttpStatus.CREATED)
+                                                .header("Location", LoansController.LOANS_PATH + "/" + createLoanDto.getMobileNumber())
+                                                .body(body));
+        }
+
+        @Operation(summary = "Update a loan", description = "Update a loan")
+        @PutMapping(LoansController.LOANS_PATH)
+        public Mono<ResponseEntity<ResponseDto>> updateLoan(@Valid @RequestBody LoanDto loanDto) {
+
+                // not updated means the loan has been changed or deleted since it was read
+                return reactiveLoansService.updateLoan(loanDto)
+                                .map(isUpdated -> isUpdated
+                                                ? buildResponse(true)
+                                                : ResponseEntity
+                                                                .status(HttpStatus.CONFLICT)
+                                                                .body(ResponseDto.builder()
+                                                                                .statusCode(LoansConstants.STATUS_409)
+                                                                                .statusMessage(LoansConstants.MESSAGE_409)
+                                                                                .build()));
+        }
+
+        @Operation(summary = "Post a payment", description = "Apply a payment to a loan atomically and return the new balance")
+        @PostMapping(LoansController.LOANS_PAYMENTS_PATH)
+        public Mono<ResponseEntity<LoanBalanceDto>> postPayment(
+                        @PathVariable String loanNumber,
+                        @Valid @RequestBody PaymentDto paymentDto) {
+
+                return reactiveLoansService.postPayment(loanNumber, paymentDto)
+                                .map(balance -> ResponseEntity
+                                                .status(HttpStatus.OK)
+                                                .body(balance));
+        }
+
+        @Operation(summary = "Delete a loan", description = "Delete a loan by mobile number")
+        @DeleteMapping(LoansController.LOANS_MOBILENUMBER_PATH)
+        public Mono<ResponseEntity<ResponseDto>> deleteLoan(@PathVariable String mobileNumber) {
+
+                return reactiveLoansService.deleteLoan(mobileNumber)
+                                .map(this::buildResponse);
+        }
+
+        @Operation(summary = "Get build information", description = "Get the current build version that is deployed for this service")
+        @GetMapping(path = LoansController.LOANS_VERSION_PATH, produces = MediaType.TEXT_PLAIN_VALUE)
+        public Mono<ResponseEntity<String>> getBuildVersion() {
+                return Mono.just(ResponseEntity
+                                .status(HttpStatus.OK)
+                                .body(buildVersion));
+        }
+
+        private ResponseEntity<ResponseDto> buildResponse(boolean isSuccessful) {
+
+                if (isSuccessful) {
+                        return ResponseEntity
+                                        .status(HttpStatus.OK)
+                                        .body(ResponseDto.builder()
+                                                        .statusCode(LoansConstants.STATUS_200)
+                                                        .statusMessage(LoansConstants.MESSAGE_200)
+                                                        .build());
+                } else {
+                        return ResponseEntity
+                                        .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .body(ResponseDto.builder()
+                                                        .statusCode(LoansConstants.STATUS_500)
+                                                        .statusMessage(LoansConstants.MESSAGE_500)
+                                                        .build());
+                }
+        }
+}
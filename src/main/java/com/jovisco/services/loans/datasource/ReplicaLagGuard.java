@@ -0,0 +1,81 @@
+package com.jovisco.services.loans.datasource;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Read-your-writes despite a lagging replica - loans written within the
+ * maximum replication lag are read from the primary. Otherwise a client could
+ * read the state before its own update, and the loans cache would keep it.
+ *
+ * Writes are recorded when the changed loans are evicted from the loans cache,
+ * on the replica that wrote them as well as on all others. Without a replica
+ * nothing is recorded.
+ */
+@Component
+public class ReplicaLagGuard {
+
+  private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+  // mobile numbers of loans written within the maximum lag - null without a replica
+  private final Cache<String, Boolean> recentlyWritten;
+
+  public ReplicaLagGuard(
+      @Value("${loans.datasource.replica.jdbc-url:}") String replicaUrl,
+      @Value("${loans.datasource.replica.max-lag:1s}") Duration maxLag,
+      @Value("${loans.datasource.replica.max-tracked-writes:100000}") long maxTrackedWrites) {
+
+    this.recentlyWritten = replicaUrl.isBlank()
+        ? null
+        : Caffeine.newBuilder()
+            .maximumSize(maxTrackedWrites)
+            .expireAfterWrite(maxLag)
+            .build();
+  }
+
+  /**
+   * 
+   * @param mobileNumbers mobile numbers of changed loans
+   */
+  public void written(Collection<String> mobileNumbers) {
+
+    if (recentlyWritten != null) {
+      mobileNumbers.forEach(mobileNumber -> recentlyWritten.put(mobileNumber, Boolean.TRUE));
+    }
+  }
+
+  /**
+   * Reads a loan - from the primary if it has been written within the maximum
+   * lag, otherwise wherever the transaction is routed to
+   * 
+   * @param mobileNumber mobile number of the loan
+   * @param reader       reads the loan, within a transaction that has no
+   *                     connection yet
+   * @return result of the reader
+   */
+  public <T> T read(String mobileNumber, Supplier<T> reader) {
+
+    if (recentlyWritten == null || recentlyWritten.getIfPresent(mobileNumber) == null
+        || Boolean.TRUE.equals(PRIMARY_REQUIRED.get())) {
+      return reader.get();
+    }
+
+    PRIMARY_REQUIRED.set(Boolean.TRUE);
+    try {
+      return reader.get();
+    } finally {
+      PRIMARY_REQUIRED.remove();
+    }
+  }
+
+  boolean isPrimaryRequired() {
+    return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+  }
+}
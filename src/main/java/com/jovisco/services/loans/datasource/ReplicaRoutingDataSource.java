@@ -0,0 +1,42 @@
+package com.jovisco.services.loans.datasource;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections of read-only transactions to the replica, all others to
+ * the primary. Loans written within the replication lag are read from the
+ * primary, see {@link ReplicaLagGuard}.
+ *
+ * The transaction is only known once it has begun - so this data source must
+ * be wrapped in a LazyConnectionDataSourceProxy, which fetches the connection
+ * with the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  public enum Target {
+    PRIMARY, REPLICA
+  }
+
+  private final ReplicaLagGuard replicaLagGuard;
+
+  public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagGuard replicaLagGuard) {
+
+    this.replicaLagGuard = replicaLagGuard;
+    setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    setLenientFallback(false);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+
+    return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !replicaLagGuard.isPrimaryRequired()
+        ? Target.REPLICA
+        : Target.PRIMARY;
+  }
+}
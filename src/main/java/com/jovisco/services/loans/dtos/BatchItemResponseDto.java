@@ -0,0 +1,20 @@
+package com.jovisco.services.loans.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Schema(name = "Batch Item Response", description = "Schema to hold the result of a single item of a batch request")
+@Data @AllArgsConstructor @Builder
+public class BatchItemResponseDto {
+
+  @Schema(description = "Mobile phone number of customer", example = "+1 222 34567890")
+  private String mobileNumber;
+
+  @Schema(description = "HTTP status code", example = "201")
+  private String statusCode;
+
+  @Schema(description = "Status message", example = "Loan created successfully")
+  private String statusMessage;
+}
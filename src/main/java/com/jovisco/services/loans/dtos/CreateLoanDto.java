@@ -1,8 +1,9 @@
 package com.jovisco.services.loans.dtos;
 
+import com.jovisco.services.loans.validation.MobileNumber;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,8 +12,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor @AllArgsConstructor @Data
 public class CreateLoanDto {
 
-  @Schema(description = "Mobile phone number of customer", example = "+1 222 34567890")
+  @Schema(description = "Mobile phone number of customer", example = "+1 222 34567890",
+      pattern = "^\\+[1-9]{1}[0-9]{3,14}$")
   @NotEmpty(message = "Mobile number must not be empty")
-  @Pattern(regexp = "^\\+[1-9]{1}[0-9]{3,14}$", message = "Mobile number must be valid")
+  @MobileNumber(message = "Mobile number must be valid")
   private String mobileNumber;
 }
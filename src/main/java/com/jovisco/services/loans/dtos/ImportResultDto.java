@@ -0,0 +1,25 @@
+package com.jovisco.services.loans.dtos;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Schema(name = "Import Result", description = "Schema to hold the result of a loan import")
+@Data @AllArgsConstructor @Builder
+public class ImportResultDto {
+
+  @Schema(description = "Number of loans created", example = "1000")
+  private long created;
+
+  @Schema(description = "Number of existing loans updated", example = "250")
+  private long updated;
+
+  @Schema(description = "Number of lines rejected", example = "2")
+  private long rejected;
+
+  @Schema(description = "Reasons for rejected lines - limited to the first few", example = "[\"line 7: Loan number must be 12 digits\"]")
+  private List<String> errors;
+}
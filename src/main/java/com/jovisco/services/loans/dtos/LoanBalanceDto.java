@@ -0,0 +1,21 @@
+package com.jovisco.services.loans.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(name = "Loan Balance", description = "Schema to hold the balance of a loan after a payment")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class LoanBalanceDto {
+
+  @Schema(description = "Loan number of the customer", example = "123456789012")
+  private String loanNumber;
+
+  @Schema(description = "Total loan amount paid", example = "13345")
+  private int amountPaid;
+
+  @Schema(description = "Total loan amount outstanding", example = "97765")
+  private int outstandingAmount;
+}
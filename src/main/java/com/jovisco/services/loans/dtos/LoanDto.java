@@ -1,8 +1,11 @@
 package com.jovisco.services.loans.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.jovisco.services.loans.validation.LoanNumber;
+import com.jovisco.services.loans.validation.MobileNumber;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Builder;
@@ -12,14 +15,15 @@ import lombok.Data;
 @Data @Builder
 public class LoanDto {
 
-  @Schema(description = "Mobile phone number of customer", example = "+1 222 34567890")
+  @Schema(description = "Mobile phone number of customer", example = "+1 222 34567890",
+      pattern = "^\\+[1-9]{1}[0-9]{3,14}$")
   @NotEmpty(message = "Mobile number must not be empty")
-  @Pattern(regexp = "^\\+[1-9]{1}[0-9]{3,14}$", message = "Mobile number must be valid")
+  @MobileNumber(message = "Mobile number must be valid")
   private String mobileNumber;
 
-  @Schema(description = "Loan number of the customer", example = "123456789012")
+  @Schema(description = "Loan number of the customer", example = "123456789012", pattern = "(^$|[0-9]{12})")
   @NotEmpty(message = "Loan number must not be empty")
-  @Pattern(regexp = "(^$|[0-9]{12})", message = "Loan number must be 12 digits")
+  @LoanNumber(message = "Loan number must be 12 digits")
   private String loanNumber;
 
   @Schema(description = "Type of loan", example = "Home Loan")
@@ -38,4 +42,8 @@ public class LoanDto {
   @PositiveOrZero(message = "Outstanding amount must be greater than or equal zero")
   private int outstandingAmount;
 
+  // sent as ETag header, not in the body - cached along with the loan, so conditional requests need no query
+  @JsonIgnore
+  private long version;
+
 }
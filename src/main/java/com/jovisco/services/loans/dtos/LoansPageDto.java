@@ -0,0 +1,34 @@
+package com.jovisco.services.loans.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Schema(name = "Loans Page", description = "Schema to hold a page of loans")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data @AllArgsConstructor @Builder
+public class LoansPageDto {
+
+  @Schema(description = "Loans of this page, ordered by id")
+  private List<LoanDto> loans;
+
+  @Schema(description = "Number of this page, starting with 0 - page/size requests only", example = "0")
+  private Integer page;
+
+  @Schema(description = "Requested page size", example = "20")
+  private int size;
+
+  @Schema(description = "Number of matching loans - page/size requests only", example = "1250")
+  private Long totalElements;
+
+  @Schema(description = "Number of pages - page/size requests only", example = "63")
+  private Integer totalPages;
+
+  @Schema(description = "Value for the 'after' parameter to request the next page - missing on the last page", example = "4711")
+  private Long nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.jovisco.services.loans.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(name = "Payment", description = "Schema to post a payment against a loan")
+@NoArgsConstructor @AllArgsConstructor @Data
+public class PaymentDto {
+
+  @Schema(description = "Amount paid", example = "1000")
+  @Positive(message = "Payment amount must be greater than zero")
+  private int amount;
+}
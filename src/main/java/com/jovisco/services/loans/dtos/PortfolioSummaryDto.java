@@ -0,0 +1,29 @@
+package com.jovisco.services.loans.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Schema(name = "Portfolio Summary", description = "Schema to hold the totals of all loans of a loan type")
+@Data @AllArgsConstructor @Builder
+public class PortfolioSummaryDto {
+
+  @Schema(description = "Type of loan", example = "Home Loan")
+  private String loanType;
+
+  @Schema(description = "Number of loans", example = "1250")
+  private long count;
+
+  @Schema(description = "Sum of total loan amounts", example = "1249998750")
+  private long totalLoan;
+
+  @Schema(description = "Sum of amounts paid", example = "12345678")
+  private long amountPaid;
+
+  @Schema(description = "Sum of outstanding amounts", example = "1237653072")
+  private long outstandingAmount;
+
+  @Schema(description = "Average share of the total loan still outstanding, between 0 and 1", example = "0.99")
+  private double averageUtilisation;
+}
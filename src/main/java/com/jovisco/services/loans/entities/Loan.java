@@ -5,6 +5,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -17,8 +18,10 @@ import lombok.ToString;
 @Table(name = "loans")
 public class Loan extends BaseEntity {
 
+  // table based generator with pooled allocation - IDENTITY would prevent hibernate from batching inserts
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "loans_id_generator")
+  @TableGenerator(name = "loans_id_generator", table = "loans_id_generator", pkColumnName = "sequence_name", valueColumnName = "next_val", pkColumnValue = "loans", allocationSize = 50)
   private Long id;
 
   private String mobileNumber;
@@ -27,4 +30,8 @@ public class Loan extends BaseEntity {
   private int totalLoan;
   private int amountPaid;
   private int outstandingAmount;
+
+  // incremented by every change, mostly within the update statements - deliberately no jpa @Version, so that deletes
+  // and saves of detached loans keep working as before
+  private long version;
 }
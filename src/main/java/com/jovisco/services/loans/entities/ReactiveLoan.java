@@ -0,0 +1,28 @@
+package com.jovisco.services.loans.entities;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// r2dbc view of the loans table - rows are only read, changes are written with single statements
+@Getter @Setter @ToString @NoArgsConstructor @AllArgsConstructor @Builder
+@Table("loans")
+public class ReactiveLoan {
+
+  @Id
+  private Long id;
+
+  private String mobileNumber;
+  private String loanNumber;
+  private String loanType;
+  private int totalLoan;
+  private int amountPaid;
+  private int outstandingAmount;
+  private long version;
+}
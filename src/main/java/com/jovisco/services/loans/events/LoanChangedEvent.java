@@ -0,0 +1,24 @@
+package com.jovisco.services.loans.events;
+
+import java.util.List;
+
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published on the Spring Cloud Bus whenever loans are created, updated or
+ * deleted - every replica evicts the given mobile numbers from its local cache
+ */
+@Getter @NoArgsConstructor
+public class LoanChangedEvent extends RemoteApplicationEvent {
+
+  private List<String> mobileNumbers;
+
+  public LoanChangedEvent(Object source, String originService, Destination destination, List<String> mobileNumbers) {
+    super(source, originService, destination);
+    this.mobileNumbers = mobileNumbers;
+  }
+}
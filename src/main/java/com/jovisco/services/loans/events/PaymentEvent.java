@@ -0,0 +1,11 @@
+package com.jovisco.services.loans.events;
+
+/**
+ * Repayment delivered by an upstream system, e.g. a month-end run - ingested by
+ * {@link com.jovisco.services.loans.services.PaymentIngestionService}
+ * 
+ * @param loanNumber loan the payment is posted against
+ * @param amount     amount paid, greater than zero
+ */
+public record PaymentEvent(String loanNumber, int amount) {
+}
@@ -0,0 +1,17 @@
+package com.jovisco.services.loans.exceptions;
+
+import java.time.Duration;
+
+import lombok.Getter;
+
+// answered with 503 and a Retry-After header - thrown under overload, so without a stack trace
+@Getter
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
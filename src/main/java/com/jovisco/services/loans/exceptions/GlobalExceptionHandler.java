@@ -5,6 +5,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -18,10 +20,22 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.jovisco.services.loans.dtos.ErrorResponseDto;
+import com.jovisco.services.loans.metrics.LoansMetrics;
 
+import jakarta.validation.ConstraintViolationException;
+
+// servlet stack only - see ReactiveExceptionHandler for the reactive profile
+@Profile("!reactive")
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    // not available in web mvc slice tests
+    private final ObjectProvider<LoansMetrics> loansMetrics;
+
+    public GlobalExceptionHandler(ObjectProvider<LoansMetrics> loansMetrics) {
+        this.loansMetrics = loansMetrics;
+    }
+
     @ExceptionHandler(Exception.class) public ResponseEntity<ErrorResponseDto> handleGlobalException(
             Exception exception,
             WebRequest webRequest) {
@@ -50,6 +64,20 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
     }
 
+    @ExceptionHandler(PaymentRejectedException.class) public ResponseEntity<ErrorResponseDto> handlePaymentRejectedException(
+            PaymentRejectedException exception,
+            WebRequest webRequest) {
+
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath(webRequest.getDescription(false))
+                .errorCode(HttpStatus.BAD_REQUEST)
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class) public ResponseEntity<ErrorResponseDto> handleResourceNotFoundException(
             ResourceNotFoundException exception,
             WebRequest webRequest) {
@@ -64,12 +92,67 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
     }
 
+    @ExceptionHandler(IdempotencyKeyException.class) public ResponseEntity<ErrorResponseDto> handleIdempotencyKeyException(
+            IdempotencyKeyException exception,
+            WebRequest webRequest) {
+
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath(webRequest.getDescription(false))
+                .errorCode(exception.getStatus())
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
+    }
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class) public ResponseEntity<ErrorResponseDto> handleConcurrencyLimitExceededException(
+            ConcurrencyLimitExceededException exception,
+            WebRequest webRequest) {
+
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath(webRequest.getDescription(false))
+                .errorCode(HttpStatus.SERVICE_UNAVAILABLE)
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        var headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, exception.getRetryAfter().toSeconds())));
+
+        return new ResponseEntity<>(errorResponseDto, headers, errorResponseDto.getErrorCode());
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class) public ResponseEntity<ErrorResponseDto> handleConstraintViolationException(
+            ConstraintViolationException exception,
+            WebRequest webRequest) {
+
+        // the property path starts with the name of the validated controller method
+        exception.getConstraintViolations().stream()
+                .findFirst()
+                .map(violation -> violation.getPropertyPath().iterator().next().getName())
+                .ifPresent(this::countValidationFailure);
+
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath(webRequest.getDescription(false))
+                .errorCode(HttpStatus.BAD_REQUEST)
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
+    }
+
     @Override protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex,
             HttpHeaders headers,
             HttpStatusCode status,
             WebRequest request) {
 
+        if (ex.getParameter().getMethod() != null) {
+            countValidationFailure(ex.getParameter().getMethod().getName());
+        }
+
         Map<String, String> validationErrors = new HashMap<>();
         List<ObjectError> validationErrorList = ex.getBindingResult().getAllErrors();
 
@@ -81,4 +164,8 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
         return new ResponseEntity<>(validationErrors, HttpStatus.BAD_REQUEST);
     }
+
+    private void countValidationFailure(String operation) {
+        loansMetrics.ifAvailable(metrics -> metrics.count(operation, LoansMetrics.VALIDATION_FAILED));
+    }
 }
@@ -0,0 +1,17 @@
+package com.jovisco.services.loans.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+// 409 while the request that claimed the key is in progress, 422 when the key is reused for a different request
+@Getter
+public class IdempotencyKeyException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public IdempotencyKeyException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+}
@@ -0,0 +1,112 @@
+package com.jovisco.services.loans.exceptions;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.jovisco.services.loans.dtos.ErrorResponseDto;
+
+import jakarta.validation.ConstraintViolationException;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link GlobalExceptionHandler} - same status codes and
+ * error responses for the reactive profile
+ */
+@Profile("reactive")
+@ControllerAdvice
+public class ReactiveExceptionHandler extends ResponseEntityExceptionHandler {
+
+    @ExceptionHandler(Exception.class) public ResponseEntity<ErrorResponseDto> handleGlobalException(
+            Exception exception,
+            ServerWebExchange exchange) {
+
+        return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, exception, exchange);
+    }
+
+    @ExceptionHandler(LoanAlreadyExistsException.class) public ResponseEntity<ErrorResponseDto> handleLoanAlreadyExistsException(
+            LoanAlreadyExistsException exception,
+            ServerWebExchange exchange) {
+
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, exception, exchange);
+    }
+
+    @ExceptionHandler(PaymentRejectedException.class) public ResponseEntity<ErrorResponseDto> handlePaymentRejectedException(
+            PaymentRejectedException exception,
+            ServerWebExchange exchange) {
+
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, exception, exchange);
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class) public ResponseEntity<ErrorResponseDto> handleResourceNotFoundException(
+            ResourceNotFoundException exception,
+            ServerWebExchange exchange) {
+
+        return buildErrorResponse(HttpStatus.NOT_FOUND, exception, exchange);
+    }
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class) public ResponseEntity<ErrorResponseDto> handleConcurrencyLimitExceededException(
+            ConcurrencyLimitExceededException exception,
+            ServerWebExchange exchange) {
+
+        var response = buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, exception, exchange);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, exception.getRetryAfter().toSeconds())))
+                .body(response.getBody());
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class) public ResponseEntity<ErrorResponseDto> handleConstraintViolationException(
+            ConstraintViolationException exception,
+            ServerWebExchange exchange) {
+
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, exception, exchange);
+    }
+
+    @Override protected Mono<ResponseEntity<Object>> handleWebExchangeBindException(
+            WebExchangeBindException ex,
+            HttpHeaders headers,
+            HttpStatusCode status,
+            ServerWebExchange exchange) {
+
+        Map<String, String> validationErrors = new HashMap<>();
+        List<ObjectError> validationErrorList = ex.getBindingResult().getAllErrors();
+
+        validationErrorList.forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String validationMsg = error.getDefaultMessage();
+            validationErrors.put(fieldName, validationMsg);
+        });
+
+        return Mono.just(new ResponseEntity<>(validationErrors, HttpStatus.BAD_REQUEST));
+    }
+
+    // same api path format as WebRequest#getDescription(false) in the servlet stack
+    private ResponseEntity<ErrorResponseDto> buildErrorResponse(
+            HttpStatus status,
+            Exception exception,
+            ServerWebExchange exchange) {
+
+        var errorResponseDto = ErrorResponseDto.builder()
+                .apiPath("uri=" + exchange.getRequest().getPath().value())
+                .errorCode(status)
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+
+        return new ResponseEntity<>(errorResponseDto, errorResponseDto.getErrorCode());
+    }
+}
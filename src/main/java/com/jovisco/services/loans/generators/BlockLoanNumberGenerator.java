@@ -0,0 +1,146 @@
+package com.jovisco.services.loans.generators;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hi/lo loan number generator: each instance reserves a block of numbers in the
+ * database and hands them out from memory, so the database is only involved once
+ * per block, and instances never hand out the same number.
+ * 
+ * A loan number consists of 11 digits followed by a Luhn check digit. Numbers
+ * start with 2, to never collide with the random numbers of former versions
+ * (100000000000 - 100899999999).
+ */
+@Component
+public class BlockLoanNumberGenerator implements LoanNumberGenerator {
+
+  static final long FIRST_NUMBER = 20_000_000_000L;
+  static final long LAST_NUMBER = 99_999_999_999L;
+
+  private static final String NEXT_BLOCK_UPDATE = "update loans_id_generator set next_val = next_val + 1 where sequence_name = 'loan_numbers'";
+  private static final String NEXT_BLOCK_QUERY = "select next_val from loans_id_generator where sequence_name = 'loan_numbers'";
+
+  private final LongSupplier nextBlock;
+
+  private final long blockSize;
+
+  // not synchronized - a virtual thread reserving a block over jdbc would pin its carrier thread
+  private final ReentrantLock reserveLock = new ReentrantLock();
+
+  private volatile Block block = new Block(0, 0);
+
+  @Autowired
+  public BlockLoanNumberGenerator(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      @Value("${loans.loan-number.block-size:1000}") long blockSize) {
+
+    // reserve blocks in a transaction of their own - a block must stay reserved, even if the caller rolls back
+    var transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    this.nextBlock = () -> transactionTemplate.execute(status -> {
+      jdbcTemplate.update(NEXT_BLOCK_UPDATE);
+      return jdbcTemplate.queryForObject(NEXT_BLOCK_QUERY, Long.class);
+    });
+    this.blockSize = blockSize;
+  }
+
+  /**
+   * 
+   * @param nextBlock supplier of unique block numbers, starting with 1
+   * @param blockSize number of loan numbers per block
+   */
+  public BlockLoanNumberGenerator(LongSupplier nextBlock, long blockSize) {
+    this.nextBlock = nextBlock;
+    this.blockSize = blockSize;
+  }
+
+  @Override
+  public String nextLoanNumber() {
+
+    var number = nextNumber();
+    return Long.toString(number * 10 + checkDigit(number));
+  }
+
+  private long nextNumber() {
+
+    // fast path - no locking as long as the current block is not exhausted
+    var current = block;
+    var number = current.next.getAndIncrement();
+    if (number < current.end) {
+      return number;
+    }
+
+    reserveLock.lock();
+    try {
+      // another thread might have reserved a new block in the meantime
+      while (true) {
+        current = block;
+        number = current.next.getAndIncrement();
+        if (number < current.end) {
+          return number;
+        }
+        block = reserveBlock();
+      }
+    } finally {
+      reserveLock.unlock();
+    }
+  }
+
+  private Block reserveBlock() {
+
+    var start = FIRST_NUMBER + (nextBlock.getAsLong() - 1) * blockSize;
+    if (start + blockSize - 1 > LAST_NUMBER) {
+      throw new IllegalStateException("Loan numbers are exhausted");
+    }
+
+    return new Block(start, start + blockSize);
+  }
+
+  /**
+   * 
+   * @param number number without check digit
+   * @return Luhn check digit for the given number
+   */
+  static int checkDigit(long number) {
+
+    var sum = 0;
+    var doubled = true;
+    for (var rest = number; rest > 0; rest /= 10) {
+      var digit = (int) (rest % 10);
+      if (doubled) {
+        digit *= 2;
+        if (digit > 9) {
+          digit -= 9;
+        }
+      }
+      sum += digit;
+      doubled = !doubled;
+    }
+
+    return (10 - sum % 10) % 10;
+  }
+
+  private static final class Block {
+
+    private final AtomicLong next;
+
+    private final long end;
+
+    private Block(long start, long end) {
+      this.next = new AtomicLong(start);
+      this.end = end;
+    }
+  }
+}
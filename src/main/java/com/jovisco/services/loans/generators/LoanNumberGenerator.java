@@ -0,0 +1,10 @@
+package com.jovisco.services.loans.generators;
+
+public interface LoanNumberGenerator {
+
+  /**
+   * 
+   * @return new, unique 12 digit loan number
+   */
+  String nextLoanNumber();
+}
@@ -0,0 +1,24 @@
+package com.jovisco.services.loans.idempotency;
+
+/**
+ * Request that claimed an idempotency key, and its response once it is
+ * completed
+ *
+ * @param requestHash hash of the request the key was sent with
+ * @param response    response of the request - null while it is in progress
+ */
+public record IdempotencyRecord(String requestHash, StoredResponse response) {
+
+  public boolean isCompleted() {
+    return response != null;
+  }
+
+  /**
+   *
+   * @param status   http status code
+   * @param location location header, if any
+   * @param body     response body as json
+   */
+  public record StoredResponse(int status, String location, String body) {
+  }
+}
@@ -0,0 +1,37 @@
+package com.jovisco.services.loans.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Keys sent by clients with the Idempotency-Key header, and the responses of
+ * the requests they were sent with - see {@link IdempotentRequests}. Keys are
+ * evicted once their time to live has passed.
+ */
+public interface IdempotencyStore {
+
+  /**
+   * Claims the key atomically - of concurrent claims for the same key, only one
+   * succeeds
+   *
+   * @param key         idempotency key
+   * @param requestHash hash of the request the key is sent with
+   * @return empty if the key has been claimed by this call - otherwise the
+   *         record of the request that claimed it before
+   */
+  Optional<IdempotencyRecord> claim(String key, String requestHash);
+
+  /**
+   *
+   * @param key      idempotency key claimed before
+   * @param response response to be replayed for the key
+   */
+  void complete(String key, IdempotencyRecord.StoredResponse response);
+
+  /**
+   * Releases a claimed key without a response, e.g. when the request failed - so
+   * that it can be retried
+   *
+   * @param key idempotency key claimed before
+   */
+  void release(String key);
+}
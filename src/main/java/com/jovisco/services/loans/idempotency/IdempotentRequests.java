@@ -0,0 +1,135 @@
+package com.jovisco.services.loans.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.exceptions.IdempotencyKeyException;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Requests sent with an Idempotency-Key header are processed once - retries
+ * with the same key get the stored response, status, body and location header,
+ * without processing the request again. A retry arriving while the first
+ * request is still in progress is rejected with 409, a key reused for a
+ * different request with 422.
+ *
+ * Only successful responses are stored - after a failure the key is released,
+ * and a retry is processed again.
+ */
+@RequiredArgsConstructor
+@Component
+public class IdempotentRequests {
+
+  private static final int MAX_KEY_LENGTH = 64;
+
+  private final IdempotencyStore idempotencyStore;
+
+  private final ObjectMapper objectMapper;
+
+  /**
+   *
+   * @param idempotencyKey key sent by the client, might be null
+   * @param operation      name of the operation
+   * @param request        the request, identifying it together with the operation
+   * @param bodyType       type of the response body
+   * @param processor      processes the request
+   * @return response of the request, or the stored response of the request
+   *         that claimed the key before
+   */
+  public <T> ResponseEntity<T> process(String idempotencyKey, String operation, Object request, Class<T> bodyType,
+      Supplier<ResponseEntity<T>> processor) {
+
+    if (idempotencyKey == null) {
+      return processor.get();
+    }
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      throw new IdempotencyKeyException(HttpStatus.BAD_REQUEST,
+          LoansConstants.IDEMPOTENCY_KEY_HEADER + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+    }
+
+    var requestHash = hash(operation, request);
+    var claimed = idempotencyStore.claim(idempotencyKey, requestHash);
+    if (claimed.isPresent()) {
+      return replay(idempotencyKey, requestHash, claimed.get(), bodyType);
+    }
+
+    ResponseEntity<T> response;
+    try {
+      response = processor.get();
+    } catch (RuntimeException e) {
+      idempotencyStore.release(idempotencyKey);
+      throw e;
+    }
+
+    if (response.getStatusCode().is2xxSuccessful()) {
+      idempotencyStore.complete(idempotencyKey, new IdempotencyRecord.StoredResponse(
+          response.getStatusCode().value(),
+          response.getHeaders().getFirst(HttpHeaders.LOCATION),
+          toJson(response.getBody())));
+    } else {
+      idempotencyStore.release(idempotencyKey);
+    }
+
+    return response;
+  }
+
+  private <T> ResponseEntity<T> replay(String idempotencyKey, String requestHash, IdempotencyRecord record,
+      Class<T> bodyType) {
+
+    if (!record.requestHash().equals(requestHash)) {
+      throw new IdempotencyKeyException(HttpStatus.UNPROCESSABLE_ENTITY,
+          "Idempotency key " + idempotencyKey + " has been used for a different request");
+    }
+    if (!record.isCompleted()) {
+      throw new IdempotencyKeyException(HttpStatus.CONFLICT,
+          "Request with idempotency key " + idempotencyKey + " is still in progress");
+    }
+
+    var stored = record.response();
+    var headers = new HttpHeaders();
+    if (stored.location() != null) {
+      headers.set(HttpHeaders.LOCATION, stored.location());
+    }
+    headers.set(LoansConstants.IDEMPOTENT_REPLAYED_HEADER, "true");
+
+    try {
+      return new ResponseEntity<>(objectMapper.readValue(stored.body(), bodyType), headers, stored.status());
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Stored response for idempotency key " + idempotencyKey + " is unreadable", e);
+    }
+  }
+
+  private String toJson(Object body) {
+
+    try {
+      return objectMapper.writeValueAsString(body);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Response is not serializable", e);
+    }
+  }
+
+  // the same key must come with the same request
+  private String hash(String operation, Object request) {
+
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      digest.update(operation.getBytes(StandardCharsets.UTF_8));
+      digest.update(objectMapper.writeValueAsBytes(request));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+      throw new IllegalStateException("Request is not hashable", e);
+    }
+  }
+}
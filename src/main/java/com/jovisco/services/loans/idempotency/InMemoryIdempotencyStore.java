@@ -0,0 +1,50 @@
+package com.jovisco.services.loans.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Idempotency keys of this replica - bounded by the maximum number of entries,
+ * the oldest keys are evicted first. Retries reaching another replica are not
+ * recognized, see {@link JdbcIdempotencyStore} for that.
+ */
+@ConditionalOnProperty(name = "loans.idempotency.store", havingValue = "memory", matchIfMissing = true)
+@Component
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+  private final Cache<String, IdempotencyRecord> records;
+
+  public InMemoryIdempotencyStore(
+      @Value("${loans.idempotency.ttl:24h}") Duration ttl,
+      @Value("${loans.idempotency.max-entries:100000}") long maxEntries) {
+
+    this.records = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(ttl)
+        .build();
+  }
+
+  @Override
+  public Optional<IdempotencyRecord> claim(String key, String requestHash) {
+
+    // atomic - a concurrent claim for the same key gets the record put here
+    return Optional.ofNullable(records.asMap().putIfAbsent(key, new IdempotencyRecord(requestHash, null)));
+  }
+
+  @Override
+  public void complete(String key, IdempotencyRecord.StoredResponse response) {
+    records.asMap().computeIfPresent(key, (k, record) -> new IdempotencyRecord(record.requestHash(), response));
+  }
+
+  @Override
+  public void release(String key) {
+    records.invalidate(key);
+  }
+}
@@ -0,0 +1,114 @@
+package com.jovisco.services.loans.idempotency;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Idempotency keys shared by all replicas in the idempotency_keys table - a
+ * retry is recognized, whichever replica it reaches. Keys are claimed by the
+ * primary key of the table, expired keys are purged periodically.
+ *
+ * A key claimed by a request that never completed, e.g. on a replica that
+ * crashed, can be claimed again after the in-progress timeout.
+ */
+@Slf4j
+@ConditionalOnProperty(name = "loans.idempotency.store", havingValue = "jdbc")
+@Component
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+  private static final String CLAIM_INSERT = "insert into idempotency_keys (idempotency_key, request_hash, created_at) "
+      + "values (?, ?, ?)";
+
+  private static final String RECLAIM_UPDATE = "update idempotency_keys set request_hash = ?, response_status = null, "
+      + "response_location = null, response_body = null, created_at = ? "
+      + "where idempotency_key = ? and (created_at < ? or (response_status is null and created_at < ?))";
+
+  private static final String RECORD_QUERY = "select request_hash, response_status, response_location, response_body "
+      + "from idempotency_keys where idempotency_key = ?";
+
+  private static final String COMPLETE_UPDATE = "update idempotency_keys set response_status = ?, "
+      + "response_location = ?, response_body = ? where idempotency_key = ?";
+
+  private static final String RELEASE_DELETE = "delete from idempotency_keys where idempotency_key = ? "
+      + "and response_status is null";
+
+  private static final String PURGE_DELETE = "delete from idempotency_keys where created_at < ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final Duration ttl;
+
+  private final Duration inProgressTimeout;
+
+  public JdbcIdempotencyStore(
+      JdbcTemplate jdbcTemplate,
+      @Value("${loans.idempotency.ttl:24h}") Duration ttl,
+      @Value("${loans.idempotency.in-progress-timeout:30s}") Duration inProgressTimeout) {
+
+    this.jdbcTemplate = jdbcTemplate;
+    this.ttl = ttl;
+    this.inProgressTimeout = inProgressTimeout;
+  }
+
+  @Override
+  public Optional<IdempotencyRecord> claim(String key, String requestHash) {
+
+    // the record might be released or purged between the failed insert and the query - then claim again
+    for (int attempt = 0; attempt < 2; attempt++) {
+      var now = LocalDateTime.now();
+      try {
+        jdbcTemplate.update(CLAIM_INSERT, key, requestHash, Timestamp.valueOf(now));
+        return Optional.empty();
+      } catch (DuplicateKeyException e) {
+        // expired and abandoned claims are taken over
+        if (jdbcTemplate.update(RECLAIM_UPDATE, requestHash, Timestamp.valueOf(now), key,
+            Timestamp.valueOf(now.minus(ttl)), Timestamp.valueOf(now.minus(inProgressTimeout))) > 0) {
+          return Optional.empty();
+        }
+      }
+
+      var records = jdbcTemplate.query(RECORD_QUERY, (rs, rowNum) -> {
+        var status = rs.getInt("response_status");
+        var response = rs.wasNull()
+            ? null
+            : new IdempotencyRecord.StoredResponse(status, rs.getString("response_location"),
+                rs.getString("response_body"));
+        return new IdempotencyRecord(rs.getString("request_hash"), response);
+      }, key);
+      if (!records.isEmpty()) {
+        return Optional.of(records.get(0));
+      }
+    }
+
+    // still contended - reported as in progress
+    return Optional.of(new IdempotencyRecord(requestHash, null));
+  }
+
+  @Override
+  public void complete(String key, IdempotencyRecord.StoredResponse response) {
+    jdbcTemplate.update(COMPLETE_UPDATE, response.status(), response.location(), response.body(), key);
+  }
+
+  @Override
+  public void release(String key) {
+    jdbcTemplate.update(RELEASE_DELETE, key);
+  }
+
+  @Scheduled(fixedDelayString = "${loans.idempotency.purge-interval-ms:60000}")
+  public void purgeExpired() {
+
+    var purged = jdbcTemplate.update(PURGE_DELETE, Timestamp.valueOf(LocalDateTime.now().minus(ttl)));
+    log.debug("{} expired idempotency keys purged", purged);
+  }
+}
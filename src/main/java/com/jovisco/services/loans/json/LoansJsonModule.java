@@ -0,0 +1,213 @@
+package com.jovisco.services.loans.json;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.jovisco.services.loans.dtos.ErrorResponseDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.ResponseDto;
+
+/**
+ * Hand-written serializers for the DTOs of every request - written field by
+ * field with pre-quoted field names, instead of bean introspection and
+ * property writers. The JSON is identical to the one of the default object
+ * mapper: fields in declaration order, nulls included, the error code as enum
+ * name, and the error time in ISO format unless dates are written as
+ * timestamps.
+ */
+public class LoansJsonModule extends SimpleModule {
+
+  static final SerializableString MOBILE_NUMBER = new SerializedString("mobileNumber");
+  static final SerializableString LOAN_NUMBER = new SerializedString("loanNumber");
+  static final SerializableString LOAN_TYPE = new SerializedString("loanType");
+  static final SerializableString TOTAL_LOAN = new SerializedString("totalLoan");
+  static final SerializableString AMOUNT_PAID = new SerializedString("amountPaid");
+  static final SerializableString OUTSTANDING_AMOUNT = new SerializedString("outstandingAmount");
+  static final SerializableString STATUS_CODE = new SerializedString("statusCode");
+  static final SerializableString STATUS_MESSAGE = new SerializedString("statusMessage");
+  static final SerializableString API_PATH = new SerializedString("apiPath");
+  static final SerializableString ERROR_CODE = new SerializedString("errorCode");
+  static final SerializableString ERROR_MESSAGE = new SerializedString("errorMessage");
+  static final SerializableString ERROR_TIME = new SerializedString("errorTime");
+
+  public LoansJsonModule() {
+    super("LoansJsonModule");
+    addSerializer(LoanDto.class, new LoanDtoSerializer());
+    addDeserializer(LoanDto.class, new LoanDtoDeserializer());
+    addSerializer(ResponseDto.class, new ResponseDtoSerializer());
+    addSerializer(ErrorResponseDto.class, new ErrorResponseDtoSerializer());
+  }
+
+  static final class LoanDtoSerializer extends JsonSerializer<LoanDto> {
+
+    @Override
+    public void serialize(LoanDto loanDto, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+
+      gen.writeStartObject(loanDto);
+      gen.writeFieldName(MOBILE_NUMBER);
+      gen.writeString(loanDto.getMobileNumber());
+      gen.writeFieldName(LOAN_NUMBER);
+      gen.writeString(loanDto.getLoanNumber());
+      gen.writeFieldName(LOAN_TYPE);
+      gen.writeString(loanDto.getLoanType());
+      gen.writeFieldName(TOTAL_LOAN);
+      gen.writeNumber(loanDto.getTotalLoan());
+      gen.writeFieldName(AMOUNT_PAID);
+      gen.writeNumber(loanDto.getAmountPaid());
+      gen.writeFieldName(OUTSTANDING_AMOUNT);
+      gen.writeNumber(loanDto.getOutstandingAmount());
+      gen.writeEndObject();
+    }
+  }
+
+  // unknown fields and the version, sent as ETag, are skipped - values of unexpected types are coerced by jackson
+  static final class LoanDtoDeserializer extends JsonDeserializer<LoanDto> {
+
+    @Override
+    public LoanDto deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+
+      if (!p.isExpectedStartObjectToken()) {
+        return (LoanDto) ctxt.handleUnexpectedToken(LoanDto.class, p);
+      }
+
+      var builder = LoanDto.builder();
+      for (var field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+        p.nextToken();
+        switch (field) {
+          case "mobileNumber" -> builder.mobileNumber(readString(p, ctxt));
+          case "loanNumber" -> builder.loanNumber(readString(p, ctxt));
+          case "loanType" -> builder.loanType(readString(p, ctxt));
+          case "totalLoan" -> builder.totalLoan(readInt(p, ctxt));
+          case "amountPaid" -> builder.amountPaid(readInt(p, ctxt));
+          case "outstandingAmount" -> builder.outstandingAmount(readInt(p, ctxt));
+          case "version" -> p.skipChildren();
+          default -> ctxt.handleUnknownProperty(p, this, LoanDto.class, field);
+        }
+      }
+      return builder.build();
+    }
+
+    private static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+
+      return switch (p.currentToken()) {
+        case VALUE_STRING -> p.getText();
+        case VALUE_NULL -> null;
+        default -> ctxt.readValue(p, String.class);
+      };
+    }
+
+    private static int readInt(JsonParser p, DeserializationContext ctxt) throws IOException {
+
+      return p.currentToken() == JsonToken.VALUE_NUMBER_INT && p.getNumberType() == JsonParser.NumberType.INT
+          ? p.getIntValue()
+          : ctxt.readValue(p, Integer.TYPE);
+    }
+  }
+
+  static final class ResponseDtoSerializer extends JsonSerializer<ResponseDto> {
+
+    @Override
+    public void serialize(ResponseDto responseDto, JsonGenerator gen, SerializerProvider serializers)
+        throws IOException {
+
+      gen.writeStartObject(responseDto);
+      gen.writeFieldName(STATUS_CODE);
+      gen.writeString(responseDto.getStatusCode());
+      gen.writeFieldName(STATUS_MESSAGE);
+      gen.writeString(responseDto.getStatusMessage());
+      gen.writeEndObject();
+    }
+  }
+
+  static final class ErrorResponseDtoSerializer extends JsonSerializer<ErrorResponseDto> {
+
+    @Override
+    public void serialize(ErrorResponseDto errorResponseDto, JsonGenerator gen, SerializerProvider serializers)
+        throws IOException {
+
+      gen.writeStartObject(errorResponseDto);
+      gen.writeFieldName(API_PATH);
+      gen.writeString(errorResponseDto.getApiPath());
+      gen.writeFieldName(ERROR_CODE);
+      if (errorResponseDto.getErrorCode() == null) {
+        gen.writeNull();
+      } else {
+        gen.writeString(errorResponseDto.getErrorCode().name());
+      }
+      gen.writeFieldName(ERROR_MESSAGE);
+      gen.writeString(errorResponseDto.getErrorMessage());
+      gen.writeFieldName(ERROR_TIME);
+      if (serializers.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+        // disabled by spring boot - arrays are left to the java time module
+        serializers.defaultSerializeValue(errorResponseDto.getErrorTime(), gen);
+      } else {
+        writeDateTime(gen, errorResponseDto.getErrorTime());
+      }
+      gen.writeEndObject();
+    }
+  }
+
+  /**
+   * Writes the date time like DateTimeFormatter.ISO_LOCAL_DATE_TIME, which the
+   * default serializer uses - seconds always, the fraction only if not zero and
+   * without trailing zeros - into a buffer instead of a formatted string.
+   */
+  static void writeDateTime(JsonGenerator gen, LocalDateTime dateTime) throws IOException {
+
+    if (dateTime == null) {
+      gen.writeNull();
+      return;
+    }
+    var year = dateTime.getYear();
+    if (year < 0 || year > 9999) {
+      // signed or longer years are rare enough for the formatter
+      gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime));
+      return;
+    }
+
+    var buffer = new char[29];
+    writeDigits(buffer, 0, year, 4);
+    buffer[4] = '-';
+    writeDigits(buffer, 5, dateTime.getMonthValue(), 2);
+    buffer[7] = '-';
+    writeDigits(buffer, 8, dateTime.getDayOfMonth(), 2);
+    buffer[10] = 'T';
+    writeDigits(buffer, 11, dateTime.getHour(), 2);
+    buffer[13] = ':';
+    writeDigits(buffer, 14, dateTime.getMinute(), 2);
+    buffer[16] = ':';
+    writeDigits(buffer, 17, dateTime.getSecond(), 2);
+
+    var length = 19;
+    var nano = dateTime.getNano();
+    if (nano > 0) {
+      buffer[19] = '.';
+      writeDigits(buffer, 20, nano, 9);
+      length = 29;
+      while (buffer[length - 1] == '0') {
+        length--;
+      }
+    }
+    gen.writeString(buffer, 0, length);
+  }
+
+  private static void writeDigits(char[] buffer, int offset, int value, int digits) {
+
+    for (int i = offset + digits - 1; i >= offset; i--) {
+      buffer[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.jovisco.services.loans.json;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.ResponseDto;
+
+/**
+ * Writes the constant responses of the loans API - status code and message of
+ * LoansConstants - as bytes encoded once, straight to the response body, with
+ * a content length. Other responses are encoded, and request bodies are read,
+ * by the object mapper.
+ */
+public class PreEncodedResponseConverter extends AbstractHttpMessageConverter<ResponseDto> {
+
+  private final ObjectMapper objectMapper;
+
+  private final Map<ResponseDto, byte[]> encodedResponses;
+
+  public PreEncodedResponseConverter(ObjectMapper objectMapper) {
+
+    super(MediaType.APPLICATION_JSON);
+    this.objectMapper = objectMapper;
+    this.encodedResponses = Stream.of(
+        new ResponseDto(LoansConstants.STATUS_200, LoansConstants.MESSAGE_200),
+        new ResponseDto(LoansConstants.STATUS_201, LoansConstants.MESSAGE_201),
+        new ResponseDto(LoansConstants.STATUS_409, LoansConstants.MESSAGE_409),
+        new ResponseDto(LoansConstants.STATUS_412, LoansConstants.MESSAGE_412),
+        new ResponseDto(LoansConstants.STATUS_500, LoansConstants.MESSAGE_500))
+        .collect(Collectors.toUnmodifiableMap(Function.identity(), this::encode));
+  }
+
+  private byte[] encode(ResponseDto responseDto) {
+
+    try {
+      return objectMapper.writeValueAsBytes(responseDto);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Response " + responseDto.getStatusCode() + " is not serializable", e);
+    }
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return ResponseDto.class == clazz;
+  }
+
+  // nothing to gain when reading - delegated to the object mapper
+  @Override
+  protected ResponseDto readInternal(Class<? extends ResponseDto> clazz, HttpInputMessage inputMessage)
+      throws IOException {
+
+    try {
+      return objectMapper.readValue(inputMessage.getBody(), clazz);
+    } catch (JsonProcessingException e) {
+      throw new HttpMessageNotReadableException("Could not read JSON: " + e.getOriginalMessage(), e, inputMessage);
+    }
+  }
+
+  @Override
+  protected Long getContentLength(ResponseDto responseDto, MediaType contentType) {
+
+    var encoded = encodedResponses.get(responseDto);
+    return encoded != null ? Long.valueOf(encoded.length) : null;
+  }
+
+  @Override
+  protected void writeInternal(ResponseDto responseDto, HttpOutputMessage outputMessage) throws IOException {
+
+    var encoded = encodedResponses.get(responseDto);
+    try {
+      outputMessage.getBody().write(encoded != null ? encoded : objectMapper.writeValueAsBytes(responseDto));
+    } catch (JsonProcessingException e) {
+      throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+    }
+  }
+}
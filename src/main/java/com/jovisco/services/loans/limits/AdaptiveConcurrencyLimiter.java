@@ -0,0 +1,123 @@
+package com.jovisco.services.loans.limits;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limit of concurrent calls, adapted to the observed latency - gradient based,
+ * like the Gradient2 limit of Netflix' concurrency-limits.
+ *
+ * A short and a long term average of the latency are kept. While the short
+ * term latency stays close to the long term one, the limit grows by a few
+ * calls; when calls queue up in the database or for a connection, the short
+ * term latency rises and the limit shrinks by up to half. Calls dropped
+ * because of overload, e.g. a timeout waiting for a connection, cut the limit
+ * right away.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  // number of samples the short and the long term averages are taken over
+  private static final int SHORT_WINDOW = 10;
+  private static final int LONG_WINDOW = 600;
+
+  // short term latency tolerated above the long term latency before the limit shrinks
+  private static final double TOLERANCE = 1.5;
+
+  // share of each new estimate taken over into the limit
+  private static final double SMOOTHING = 0.2;
+
+  private static final double DROP_BACKOFF = 0.9;
+
+  private final int minLimit;
+
+  private final int maxLimit;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private volatile int limit;
+
+  // guarded by this
+  private double estimatedLimit;
+  private double shortRtt;
+  private double longRtt;
+  private long samples;
+
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+
+    if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException(
+          "Limits must satisfy 1 <= min <= initial <= max: " + minLimit + ", " + initialLimit + ", " + maxLimit);
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = initialLimit;
+    this.estimatedLimit = initialLimit;
+  }
+
+  /**
+   * 
+   * @return true if the call may proceed - it must be released then
+   */
+  public boolean tryAcquire() {
+
+    if (inFlight.incrementAndGet() > limit) {
+      inFlight.decrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * 
+   * @param rttNanos duration of the call
+   * @param dropped  true if the call failed because of overload
+   */
+  public void release(long rttNanos, boolean dropped) {
+    onSample(rttNanos, inFlight.getAndDecrement(), dropped);
+  }
+
+  synchronized void onSample(long rttNanos, int inFlightAtSample, boolean dropped) {
+
+    if (dropped) {
+      update(estimatedLimit * DROP_BACKOFF);
+      return;
+    }
+
+    var rtt = (double) Math.max(rttNanos, 1);
+    samples++;
+    if (samples == 1) {
+      shortRtt = rtt;
+      longRtt = rtt;
+    } else {
+      shortRtt += (rtt - shortRtt) / Math.min(samples, SHORT_WINDOW);
+      longRtt += (rtt - longRtt) / Math.min(samples, LONG_WINDOW);
+    }
+
+    // after an overload the long term latency is pulled back quickly, so the limit can grow again
+    if (longRtt / shortRtt > 2) {
+      longRtt *= 0.95;
+    }
+
+    // a limit that isn't used is not raised - there is no evidence the service could cope with more calls
+    if (inFlightAtSample < estimatedLimit / 2) {
+      return;
+    }
+
+    var gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+    var newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    update(estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+  }
+
+  private void update(double newLimit) {
+
+    estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    limit = (int) estimatedLimit;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+}
@@ -0,0 +1,18 @@
+package com.jovisco.services.loans.limits;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks admin operations of the loans services - batches, imports and
+ * exports - which run in a bulkhead of their own. Reports are read-only
+ * fetches and stay out of it.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface AdminOperation {
+}
@@ -0,0 +1,196 @@
+package com.jovisco.services.loans.limits;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jovisco.services.loans.exceptions.ConcurrencyLimitExceededException;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulkheads isolating fetches, mutations and admin operations of the loans
+ * services, and the batches of payment ingestion - a storm of updates, a
+ * month-end burst of payments or a long running import never takes the
+ * threads and connections needed to fetch a loan. Each bulkhead is a slice of
+ * the connection pool, configured as resilience4j.bulkhead.instances, calls
+ * wait up to its maxWaitDuration for a permit and are rejected with 503
+ * afterwards.
+ *
+ * Runs inside the concurrency limits, so waiting for a permit counts as
+ * latency, and outside the transaction, so no connection is held while
+ * waiting.
+ */
+@Slf4j
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(name = "loans.bulkheads.enabled", havingValue = "true", matchIfMissing = true)
+@Component
+public class LoansBulkheads {
+
+  public static final String FETCH = "loansFetch";
+  public static final String MUTATE = "loansMutate";
+  public static final String ADMIN = "loansAdmin";
+  public static final String INGEST = "loansIngest";
+
+  public static final String QUEUE_DEPTH = "loans.bulkhead.queue.depth";
+
+  private final Compartment fetch;
+
+  private final Compartment mutate;
+
+  private final Compartment admin;
+
+  private final Compartment ingest;
+
+  private final Duration retryAfter;
+
+  // compartment of each method of the loans services
+  private final Map<Method, Compartment> compartments = new ConcurrentHashMap<>();
+
+  // calls waiting for a permit are counted - resilience4j only knows the calls holding one
+  private record Compartment(Bulkhead bulkhead, AtomicInteger waiting) {
+  }
+
+  public LoansBulkheads(
+      BulkheadRegistry bulkheadRegistry,
+      MeterRegistry meterRegistry,
+      @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+      @Value("${loans.payments.ingestion.lanes:4}") int ingestionLanes,
+      @Value("${loans.concurrency.retry-after:1s}") Duration retryAfter) {
+
+    this.fetch = register(bulkheadRegistry, meterRegistry, FETCH);
+    this.mutate = register(bulkheadRegistry, meterRegistry, MUTATE);
+    this.admin = register(bulkheadRegistry, meterRegistry, ADMIN);
+    this.ingest = register(bulkheadRegistry, meterRegistry, INGEST);
+    this.retryAfter = retryAfter;
+
+    // each lane writes one batch at a time - fewer lanes than permits never use the whole slice
+    var slices = maxConcurrentCalls(fetch) + maxConcurrentCalls(mutate) + maxConcurrentCalls(admin)
+        + Math.min(ingestionLanes, maxConcurrentCalls(ingest));
+    if (slices > maximumPoolSize) {
+      log.warn("Bulkheads allow {} concurrent calls, the connection pool only has {} connections - "
+          + "fetches might wait for connections held by mutations", slices, maximumPoolSize);
+    }
+  }
+
+  private static Compartment register(BulkheadRegistry bulkheadRegistry, MeterRegistry meterRegistry, String name) {
+
+    var compartment = new Compartment(bulkheadRegistry.bulkhead(name), new AtomicInteger());
+    Gauge.builder(QUEUE_DEPTH, compartment.waiting(), AtomicInteger::get)
+        .description("Calls waiting for a permit of the bulkhead")
+        .tag("name", name)
+        .register(meterRegistry);
+    return compartment;
+  }
+
+  private static int maxConcurrentCalls(Compartment compartment) {
+    return compartment.bulkhead().getBulkheadConfig().getMaxConcurrentCalls();
+  }
+
+  @Around("execution(* com.jovisco.services.loans.services.LoansService.*(..)) "
+      + "|| execution(* com.jovisco.services.loans.services.LoansTransferService.*(..))")
+  public Object isolate(ProceedingJoinPoint joinPoint) throws Throwable {
+
+    var compartment = compartment(joinPoint);
+    var bulkhead = compartment.bulkhead();
+
+    boolean permitted;
+    compartment.waiting().incrementAndGet();
+    try {
+      permitted = bulkhead.tryAcquirePermission();
+    } finally {
+      compartment.waiting().decrementAndGet();
+    }
+    if (!permitted) {
+      throw new ConcurrencyLimitExceededException(
+          "Bulkhead " + bulkhead.getName() + " is full", retryAfter);
+    }
+
+    try {
+      return joinPoint.proceed();
+    } finally {
+      bulkhead.onComplete();
+    }
+  }
+
+  /**
+   * Writes a batch of payment ingestion in the ingest bulkhead - batches are
+   * never refused, the lane waits for a permit and its queue applies the
+   * backpressure
+   *
+   * @param batch writes the batch
+   * @return result of the batch
+   */
+  public <T> T ingest(Supplier<T> batch) {
+
+    var bulkhead = ingest.bulkhead();
+    ingest.waiting().incrementAndGet();
+    try {
+      while (!bulkhead.tryAcquirePermission()) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new IllegalStateException("Interrupted while waiting for bulkhead " + bulkhead.getName());
+        }
+      }
+    } finally {
+      ingest.waiting().decrementAndGet();
+    }
+
+    try {
+      return batch.get();
+    } finally {
+      bulkhead.onComplete();
+    }
+  }
+
+  private Compartment compartment(ProceedingJoinPoint joinPoint) {
+
+    var method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    return compartments.computeIfAbsent(method, m -> {
+      var targetClass = joinPoint.getTarget().getClass();
+      var specificMethod = AopUtils.getMostSpecificMethod(m, targetClass);
+      if (AnnotatedElementUtils.hasAnnotation(specificMethod, AdminOperation.class)
+          || AnnotatedElementUtils.hasAnnotation(targetClass, AdminOperation.class)) {
+        return admin;
+      }
+      var transactional = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Transactional.class);
+      return transactional != null && transactional.readOnly() ? fetch : mutate;
+    });
+  }
+
+  Bulkhead fetch() {
+    return fetch.bulkhead();
+  }
+
+  Bulkhead mutate() {
+    return mutate.bulkhead();
+  }
+
+  Bulkhead admin() {
+    return admin.bulkhead();
+  }
+
+  Bulkhead ingest() {
+    return ingest.bulkhead();
+  }
+}
@@ -0,0 +1,140 @@
+package com.jovisco.services.loans.limits;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jovisco.services.loans.exceptions.ConcurrencyLimitExceededException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Load shedding in front of the loans service - calls beyond the adaptive
+ * concurrency limit are rejected right away, instead of queueing for threads
+ * and connections until the whole service stalls. Reads, i.e. read-only
+ * transactions, and writes have separate limits, so that a slow primary does
+ * not hold back reads served by the cache or a replica.
+ *
+ * Runs inside the cache advice - cache hits are never rejected - and outside
+ * the transaction, so the time waiting for a connection counts as latency.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "loans.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+@Component
+public class LoansConcurrencyLimits {
+
+  public static final String LIMIT = "loans.concurrency.limit";
+  public static final String IN_FLIGHT = "loans.concurrency.in.flight";
+  public static final String REJECTIONS = "loans.concurrency.rejections";
+
+  public static final String READ = "read";
+  public static final String WRITE = "write";
+
+  private final AdaptiveConcurrencyLimiter reads;
+
+  private final AdaptiveConcurrencyLimiter writes;
+
+  private final Counter readRejections;
+
+  private final Counter writeRejections;
+
+  private final Duration retryAfter;
+
+  // read or write - looked up once per method of the loans service
+  private final Map<Method, Boolean> readOnlyMethods = new ConcurrentHashMap<>();
+
+  public LoansConcurrencyLimits(
+      MeterRegistry meterRegistry,
+      @Value("${loans.concurrency.read.initial-limit:20}") int readInitialLimit,
+      @Value("${loans.concurrency.read.min-limit:2}") int readMinLimit,
+      @Value("${loans.concurrency.read.max-limit:200}") int readMaxLimit,
+      @Value("${loans.concurrency.write.initial-limit:10}") int writeInitialLimit,
+      @Value("${loans.concurrency.write.min-limit:1}") int writeMinLimit,
+      @Value("${loans.concurrency.write.max-limit:100}") int writeMaxLimit,
+      @Value("${loans.concurrency.retry-after:1s}") Duration retryAfter) {
+
+    this.reads = new AdaptiveConcurrencyLimiter(readInitialLimit, readMinLimit, readMaxLimit);
+    this.writes = new AdaptiveConcurrencyLimiter(writeInitialLimit, writeMinLimit, writeMaxLimit);
+    this.retryAfter = retryAfter;
+    this.readRejections = register(meterRegistry, READ, reads);
+    this.writeRejections = register(meterRegistry, WRITE, writes);
+  }
+
+  private static Counter register(MeterRegistry meterRegistry, String kind, AdaptiveConcurrencyLimiter limiter) {
+
+    Gauge.builder(LIMIT, limiter, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Current limit of concurrent loan operations")
+        .tag("kind", kind)
+        .register(meterRegistry);
+    Gauge.builder(IN_FLIGHT, limiter, AdaptiveConcurrencyLimiter::getInFlight)
+        .description("Loan operations in progress")
+        .tag("kind", kind)
+        .register(meterRegistry);
+    return Counter.builder(REJECTIONS)
+        .description("Loan operations rejected because the concurrency limit was reached")
+        .tag("kind", kind)
+        .register(meterRegistry);
+  }
+
+  @Around("execution(* com.jovisco.services.loans.services.LoansService.*(..))")
+  public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+
+    var read = isReadOnly(joinPoint);
+    var limiter = read ? reads : writes;
+    if (!limiter.tryAcquire()) {
+      (read ? readRejections : writeRejections).increment();
+      throw new ConcurrencyLimitExceededException(
+          "Limit of " + limiter.getLimit() + " concurrent loan " + (read ? READ : WRITE) + "s reached", retryAfter);
+    }
+
+    var start = System.nanoTime();
+    var dropped = false;
+    try {
+      return joinPoint.proceed();
+    } catch (TransientDataAccessException | DataAccessResourceFailureException | CannotCreateTransactionException e) {
+      // timeouts, lock contention and unavailable connections are signs of overload
+      dropped = true;
+      throw e;
+    } finally {
+      limiter.release(System.nanoTime() - start, dropped);
+    }
+  }
+
+  private boolean isReadOnly(ProceedingJoinPoint joinPoint) {
+
+    var method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    return readOnlyMethods.computeIfAbsent(method, m -> {
+      var transactional = AnnotatedElementUtils.findMergedAnnotation(
+          AopUtils.getMostSpecificMethod(m, joinPoint.getTarget().getClass()), Transactional.class);
+      return transactional != null && transactional.readOnly();
+    });
+  }
+
+  AdaptiveConcurrencyLimiter reads() {
+    return reads;
+  }
+
+  AdaptiveConcurrencyLimiter writes() {
+    return writes;
+  }
+}
@@ -0,0 +1,111 @@
+package com.jovisco.services.loans.logging;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.jovisco.services.loans.constants.LoansConstants;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Structured access log - one entry per request in the loans.access logger,
+ * with correlation id, operation, status, duration, sql statements and rows.
+ * The logger is written asynchronously through a bounded queue, see
+ * logback-spring.xml, which drops entries rather than blocking requests when it
+ * is full.
+ *
+ * Successful requests are sampled, failed and slow requests are always logged.
+ */
+@Profile("!reactive")
+@ConditionalOnProperty(name = "loans.logging.access.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger("loans.access");
+
+  private final double sampleRate;
+
+  private final long slowThresholdNanos;
+
+  public AccessLogFilter(
+      @Value("${loans.logging.access.sample-rate:1.0}") double sampleRate,
+      @Value("${loans.logging.access.slow-threshold:500ms}") Duration slowThreshold) {
+
+    this.sampleRate = sampleRate;
+    this.slowThresholdNanos = slowThreshold.toNanos();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+
+    // set by the CorrelationIdFilter for the loans api
+    var context = RequestLogContext.open(
+        request.getAttribute(CorrelationIdFilter.CORRELATION_ID_ATTRIBUTE) instanceof String correlationId
+            ? correlationId
+            : request.getHeader(LoansConstants.CORRELATION_ID_HEADER));
+    var startedAt = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      context.close();
+      log(request, response, context, System.nanoTime() - startedAt);
+    }
+  }
+
+  // nothing is formatted unless the entry is written
+  private void log(HttpServletRequest request, HttpServletResponse response, RequestLogContext context,
+      long durationNanos) {
+
+    if (!log.isInfoEnabled() || !isSampled(response.getStatus(), durationNanos)) {
+      return;
+    }
+
+    log.info("correlationId={} operation={} method={} status={} durationMs={} statements={} sqlMs={} rows={}",
+        context.getCorrelationId(),
+        operation(request),
+        request.getMethod(),
+        response.getStatus(),
+        TimeUnit.NANOSECONDS.toMillis(durationNanos),
+        context.getStatements(),
+        TimeUnit.NANOSECONDS.toMillis(context.getSqlNanos()),
+        context.getRows());
+  }
+
+  private boolean isSampled(int status, long durationNanos) {
+
+    return status >= 400
+        || durationNanos >= slowThresholdNanos
+        || sampleRate >= 1.0
+        || ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  // name of the controller method - same as the operation tag of the loans metrics
+  private static String operation(HttpServletRequest request) {
+
+    if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handlerMethod) {
+      return handlerMethod.getMethod().getName();
+    }
+
+    var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return pattern != null ? pattern.toString() : request.getRequestURI();
+  }
+}
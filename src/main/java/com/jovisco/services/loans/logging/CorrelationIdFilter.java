@@ -0,0 +1,125 @@
+package com.jovisco.services.loans.logging;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.MDC;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.jovisco.services.loans.constants.LoansConstants;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Correlation id for every loans api request - taken from the
+ * jovisco-banking-correlation-id header, or created if the header is missing or
+ * not usable. The id is put in the MDC (correlation_id) for the logging
+ * pattern, echoed in the response header, and attached to the current
+ * OpenTelemetry span.
+ *
+ * Runs first, so that the access log and everything else see the id.
+ */
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Component
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+  public static final String CORRELATION_ID_ATTRIBUTE = CorrelationIdFilter.class.getName() + ".correlationId";
+
+  public static final String MDC_KEY = "correlation_id";
+
+  static final AttributeKey<String> SPAN_ATTRIBUTE = AttributeKey.stringKey("jovisco.correlation_id");
+
+  static final String LOANS_API_PATH = "/api/v1/loans";
+
+  private static final int MAX_LENGTH = 64;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private static final String ALREADY_FILTERED_ATTRIBUTE = CorrelationIdFilter.class.getName()
+      + ALREADY_FILTERED_SUFFIX;
+
+  // the default concatenates the attribute name on every request
+  @Override
+  protected String getAlreadyFilteredAttributeName() {
+    return ALREADY_FILTERED_ATTRIBUTE;
+  }
+
+  // no allocation to find out that other paths are not filtered
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(LOANS_API_PATH, request.getContextPath().length());
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+
+    var correlationId = request.getHeader(LoansConstants.CORRELATION_ID_HEADER);
+    if (!isValid(correlationId)) {
+      correlationId = newCorrelationId();
+    }
+
+    request.setAttribute(CORRELATION_ID_ATTRIBUTE, correlationId);
+    response.setHeader(LoansConstants.CORRELATION_ID_HEADER, correlationId);
+
+    // a no-op span unless the javaagent is attached
+    var span = Span.current();
+    if (span.isRecording()) {
+      span.setAttribute(SPAN_ATTRIBUTE, correlationId);
+    }
+
+    MDC.put(MDC_KEY, correlationId);
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      MDC.remove(MDC_KEY);
+    }
+  }
+
+  // the id ends up in logs and response headers - only short ids of safe characters are taken over
+  static boolean isValid(String correlationId) {
+
+    if (correlationId == null || correlationId.isEmpty() || correlationId.length() > MAX_LENGTH) {
+      return false;
+    }
+
+    for (int i = 0; i < correlationId.length(); i++) {
+      var c = correlationId.charAt(i);
+      if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_'
+          || c == '.')) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  // 128 random bits as hex - unlike UUID.randomUUID(), without going through SecureRandom
+  static String newCorrelationId() {
+
+    var random = ThreadLocalRandom.current();
+    var chars = new char[32];
+    toHex(random.nextLong(), chars, 0);
+    toHex(random.nextLong(), chars, 16);
+
+    return new String(chars);
+  }
+
+  private static void toHex(long value, char[] chars, int offset) {
+
+    for (int i = 15; i >= 0; i--) {
+      chars[offset + i] = HEX_DIGITS[(int) (value & 0xf)];
+      value >>>= 4;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.jovisco.services.loans.logging;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.jovisco.services.loans.constants.LoansConstants;
+
+import io.opentelemetry.api.trace.Span;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link CorrelationIdFilter} - same id handling for
+ * the reactive profile. Requests hop between threads, so the id is kept as an
+ * exchange attribute instead of in the MDC.
+ */
+@Profile("reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Component
+public class ReactiveCorrelationIdFilter implements WebFilter {
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+
+    var request = exchange.getRequest();
+    if (!request.getPath().pathWithinApplication().value().startsWith(CorrelationIdFilter.LOANS_API_PATH)) {
+      return chain.filter(exchange);
+    }
+
+    var correlationId = request.getHeaders().getFirst(LoansConstants.CORRELATION_ID_HEADER);
+    if (!CorrelationIdFilter.isValid(correlationId)) {
+      correlationId = CorrelationIdFilter.newCorrelationId();
+    }
+
+    exchange.getAttributes().put(CorrelationIdFilter.CORRELATION_ID_ATTRIBUTE, correlationId);
+    exchange.getResponse().getHeaders().set(LoansConstants.CORRELATION_ID_HEADER, correlationId);
+
+    var span = Span.current();
+    if (span.isRecording()) {
+      span.setAttribute(CorrelationIdFilter.SPAN_ATTRIBUTE, correlationId);
+    }
+
+    return chain.filter(exchange);
+  }
+}
@@ -0,0 +1,77 @@
+package com.jovisco.services.loans.logging;
+
+/**
+ * Counts collected while a request is served, for its access log entry - see
+ * {@link AccessLogFilter}. Held by the thread serving the request; outside of a
+ * request, e.g. in the payment ingestion pipeline, nothing is collected.
+ */
+public final class RequestLogContext {
+
+  private static final ThreadLocal<RequestLogContext> CURRENT = new ThreadLocal<>();
+
+  private final String correlationId;
+
+  private int rows;
+
+  private int statements;
+
+  private long sqlNanos;
+
+  private RequestLogContext(String correlationId) {
+    this.correlationId = correlationId;
+  }
+
+  static RequestLogContext open(String correlationId) {
+
+    var context = new RequestLogContext(correlationId);
+    CURRENT.set(context);
+    return context;
+  }
+
+  void close() {
+    CURRENT.remove();
+  }
+
+  /**
+   *
+   * @param rows rows read or written for the current request
+   */
+  public static void addRows(int rows) {
+
+    var context = CURRENT.get();
+    if (context != null) {
+      context.rows += rows;
+    }
+  }
+
+  static void addStatements(int statements, long sqlNanos) {
+
+    var context = CURRENT.get();
+    if (context != null) {
+      context.statements += statements;
+      context.sqlNanos += sqlNanos;
+    }
+  }
+
+  static String currentCorrelationId() {
+
+    var context = CURRENT.get();
+    return context != null ? context.correlationId : null;
+  }
+
+  String getCorrelationId() {
+    return correlationId;
+  }
+
+  int getRows() {
+    return rows;
+  }
+
+  int getStatements() {
+    return statements;
+  }
+
+  long getSqlNanos() {
+    return sqlNanos;
+  }
+}
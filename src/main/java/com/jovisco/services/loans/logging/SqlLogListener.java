@@ -0,0 +1,63 @@
+package com.jovisco.services.loans.logging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Summary of the jdbc work of a hibernate session - registered for every
+ * session by hibernate.session.events.auto. Instead of echoing each statement
+ * (show-sql), one entry per session is written to the loans.sql logger, and the
+ * counts are added to the access log entry of the current request.
+ */
+public class SqlLogListener implements SessionEventListener {
+
+  private static final Logger log = LoggerFactory.getLogger("loans.sql");
+
+  private int statements;
+
+  private int batches;
+
+  private long startedAt;
+
+  private long sqlNanos;
+
+  @Override
+  public void jdbcExecuteStatementStart() {
+    startedAt = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteStatementEnd() {
+    statements++;
+    sqlNanos += System.nanoTime() - startedAt;
+  }
+
+  @Override
+  public void jdbcExecuteBatchStart() {
+    startedAt = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteBatchEnd() {
+    batches++;
+    sqlNanos += System.nanoTime() - startedAt;
+  }
+
+  @Override
+  public void end() {
+
+    if (statements + batches == 0) {
+      return;
+    }
+
+    RequestLogContext.addStatements(statements + batches, sqlNanos);
+
+    if (log.isDebugEnabled()) {
+      log.debug("correlationId={} statements={} batches={} sqlMs={}", RequestLogContext.currentCorrelationId(),
+          statements, batches, TimeUnit.NANOSECONDS.toMillis(sqlNanos));
+    }
+  }
+}
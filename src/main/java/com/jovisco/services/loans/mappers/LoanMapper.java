@@ -1,7 +1,12 @@
 package com.jovisco.services.loans.mappers;
 
+import com.jovisco.services.loans.dtos.LoanBalanceDto;
 import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.PortfolioSummaryDto;
 import com.jovisco.services.loans.entities.Loan;
+import com.jovisco.services.loans.entities.ReactiveLoan;
+import com.jovisco.services.loans.repositories.LoanSummary;
+import com.jovisco.services.loans.repositories.LoanTypeTotals;
 
 public class LoanMapper {
 
@@ -19,6 +24,88 @@ public class LoanMapper {
         .totalLoan(loan.getTotalLoan())
         .amountPaid((loan.getAmountPaid()))
         .outstandingAmount(loan.getOutstandingAmount())
+        .version(loan.getVersion())
+        .build();
+  }
+
+  /**
+   * 
+   * @param loan loan read with r2dbc
+   * @return loan DTO
+   */
+  public static LoanDto mapToLoanDto(ReactiveLoan loan) {
+
+    return LoanDto.builder()
+        .mobileNumber(loan.getMobileNumber())
+        .loanNumber(loan.getLoanNumber())
+        .loanType(loan.getLoanType())
+        .totalLoan(loan.getTotalLoan())
+        .amountPaid(loan.getAmountPaid())
+        .outstandingAmount(loan.getOutstandingAmount())
+        .version(loan.getVersion())
+        .build();
+  }
+
+  /**
+   * 
+   * @param loanSummary loan read for a listing
+   * @return loan DTO
+   */
+  public static LoanDto mapToLoanDto(LoanSummary loanSummary) {
+
+    return LoanDto.builder()
+        .mobileNumber(loanSummary.getMobileNumber())
+        .loanNumber(loanSummary.getLoanNumber())
+        .loanType(loanSummary.getLoanType())
+        .totalLoan(loanSummary.getTotalLoan())
+        .amountPaid(loanSummary.getAmountPaid())
+        .outstandingAmount(loanSummary.getOutstandingAmount())
+        .build();
+  }
+
+  /**
+   * 
+   * @param loan
+   * @return balance of the loan
+   */
+  public static LoanBalanceDto mapToLoanBalanceDto(Loan loan) {
+
+    return LoanBalanceDto.builder()
+        .loanNumber(loan.getLoanNumber())
+        .amountPaid(loan.getAmountPaid())
+        .outstandingAmount(loan.getOutstandingAmount())
+        .build();
+  }
+
+  /**
+   * 
+   * @param loan loan read with r2dbc
+   * @return balance of the loan
+   */
+  public static LoanBalanceDto mapToLoanBalanceDto(ReactiveLoan loan) {
+
+    return LoanBalanceDto.builder()
+        .loanNumber(loan.getLoanNumber())
+        .amountPaid(loan.getAmountPaid())
+        .outstandingAmount(loan.getOutstandingAmount())
+        .build();
+  }
+
+  /**
+   * 
+   * @param loanTypeTotals totals of a loan type computed by the database
+   * @return portfolio summary of the loan type
+   */
+  public static PortfolioSummaryDto mapToPortfolioSummaryDto(LoanTypeTotals loanTypeTotals) {
+
+    var count = loanTypeTotals.getCount();
+    return PortfolioSummaryDto.builder()
+        .loanType(loanTypeTotals.getLoanType())
+        .count(count)
+        .totalLoan(loanTypeTotals.getTotalLoan())
+        .amountPaid(loanTypeTotals.getAmountPaid())
+        .outstandingAmount(loanTypeTotals.getOutstandingAmount())
+        .averageUtilisation(count > 0 ? loanTypeTotals.getUtilisation() / count : 0.0)
         .build();
   }
 
@@ -33,4 +120,22 @@ public class LoanMapper {
         .outstandingAmount(loanDto.getOutstandingAmount())
         .build();
   }
+
+  /**
+   * 
+   * @param loanDto
+   * @param loan existing loan to be updated
+   * @return updated loan, with the next version
+   */
+  public static Loan mapToLoan(LoanDto loanDto, Loan loan) {
+
+    loan.setMobileNumber(loanDto.getMobileNumber());
+    loan.setLoanType(loanDto.getLoanType());
+    loan.setTotalLoan(loanDto.getTotalLoan());
+    loan.setAmountPaid(loanDto.getAmountPaid());
+    loan.setOutstandingAmount(loanDto.getOutstandingAmount());
+    loan.setVersion(loan.getVersion() + 1);
+
+    return loan;
+  }
 }
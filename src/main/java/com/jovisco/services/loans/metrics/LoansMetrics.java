@@ -0,0 +1,169 @@
+package com.jovisco.services.loans.metrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Domain metrics of the loans service - timers and outcome counters per
+ * operation, and the saturation of each connection pool. The common tags, e.g.
+ * management.metrics.tags.application, are added by the registry.
+ *
+ * The Grafana dashboard in grafana/loans-dashboard.json is built on these
+ * metric names - keep both in sync.
+ */
+@Component
+public class LoansMetrics {
+
+  public static final String OPERATIONS = "loans.operations";
+  public static final String OUTCOMES = "loans.outcomes";
+  public static final String POOL_SATURATION = "loans.datasource.pool.saturation";
+
+  public static final String CREATE = "createLoan";
+  public static final String FETCH = "fetchLoan";
+  public static final String UPDATE = "updateLoan";
+  public static final String DELETE = "deleteLoan";
+
+  public static final String CREATED = "created";
+  public static final String DUPLICATE = "duplicate";
+  public static final String FOUND = "found";
+  public static final String NOT_FOUND = "not-found";
+  public static final String UPDATED = "updated";
+  public static final String CONFLICT = "conflict";
+  public static final String DELETED = "deleted";
+  public static final String VALIDATION_FAILED = "validation-failed";
+
+  private static final String NO_EXCEPTION = "none";
+
+  private static final String ROLLED_BACK = "TransactionRolledBack";
+
+  private final MeterRegistry meterRegistry;
+
+  private final Duration[] slo;
+
+  // meters are looked up on every call - keep the lookup off the registry
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+  public LoansMetrics(
+      MeterRegistry meterRegistry,
+      ObjectProvider<HikariDataSource> dataSources,
+      @Value("${loans.metrics.slo:10ms,25ms,50ms,100ms,250ms,500ms,1s}") Duration[] slo) {
+
+    this.meterRegistry = meterRegistry;
+    this.slo = slo;
+
+    // the primary and - with read/write routing - the replica pool
+    dataSources.orderedStream().forEach(this::registerPoolSaturation);
+  }
+
+  // active connections in relation to the pool size - at 1 further requests queue for a connection
+  private void registerPoolSaturation(HikariDataSource dataSource) {
+
+    Gauge.builder(POOL_SATURATION, dataSource, LoansMetrics::poolSaturation)
+        .description("Active connections in relation to the maximum pool size")
+        .tag("pool", Objects.requireNonNullElse(dataSource.getPoolName(), "default"))
+        .register(meterRegistry);
+  }
+
+  private static double poolSaturation(HikariDataSource dataSource) {
+
+    // the pool is started with the first connection
+    var pool = dataSource.getHikariPoolMXBean();
+    if (pool == null || dataSource.getMaximumPoolSize() <= 0) {
+      return 0.0;
+    }
+
+    return (double) pool.getActiveConnections() / dataSource.getMaximumPoolSize();
+  }
+
+  /**
+   * Times an operation - within a transaction, including its commit
+   *
+   * @param operation name of the operation
+   * @param action    the operation
+   * @return result of the operation
+   */
+  public <T> T time(String operation, Supplier<T> action) {
+
+    var sample = Timer.start(meterRegistry);
+    try {
+      var result = action.get();
+      stop(sample, operation);
+      return result;
+    } catch (RuntimeException e) {
+      sample.stop(timer(operation, e.getClass().getSimpleName()));
+      throw e;
+    }
+  }
+
+  /**
+   * Times an operation - within a transaction, including its commit
+   *
+   * @param operation name of the operation
+   * @param action    the operation
+   */
+  public void time(String operation, Runnable action) {
+
+    time(operation, () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  private void stop(Timer.Sample sample, String operation) {
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          sample.stop(timer(operation, status == STATUS_COMMITTED ? NO_EXCEPTION : ROLLED_BACK));
+        }
+      });
+    } else {
+      sample.stop(timer(operation, NO_EXCEPTION));
+    }
+  }
+
+  /**
+   *
+   * @param operation name of the operation
+   * @param outcome   outcome of the operation
+   */
+  public void count(String operation, String outcome) {
+
+    counters.computeIfAbsent(operation + ':' + outcome, key -> Counter.builder(OUTCOMES)
+        .description("Loan operations by outcome")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .register(meterRegistry))
+        .increment();
+  }
+
+  private Timer timer(String operation, String exception) {
+
+    return timers.computeIfAbsent(operation + ':' + exception, key -> Timer.builder(OPERATIONS)
+        .description("Time to process loan operations")
+        .tag("operation", operation)
+        .tag("exception", exception)
+        .publishPercentileHistogram()
+        .serviceLevelObjectives(slo)
+        .register(meterRegistry));
+  }
+}
@@ -0,0 +1,22 @@
+package com.jovisco.services.loans.repositories;
+
+/**
+ * Projection for loan listings - only the columns shown in a listing are
+ * selected, no entities are loaded into the persistence context
+ */
+public interface LoanSummary {
+
+  Long getId();
+
+  String getMobileNumber();
+
+  String getLoanNumber();
+
+  String getLoanType();
+
+  int getTotalLoan();
+
+  int getAmountPaid();
+
+  int getOutstandingAmount();
+}
@@ -0,0 +1,20 @@
+package com.jovisco.services.loans.repositories;
+
+/**
+ * Projection for the totals of all loans of a loan type
+ */
+public interface LoanTypeTotals {
+
+  String getLoanType();
+
+  Long getCount();
+
+  Long getTotalLoan();
+
+  Long getAmountPaid();
+
+  Long getOutstandingAmount();
+
+  // sum of outstanding amount / total loan over all loans - divided by count for the average
+  Double getUtilisation();
+}
@@ -1,16 +1,158 @@
 package com.jovisco.services.loans.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.jovisco.services.loans.entities.Loan;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface LoansRepository extends JpaRepository<Loan, Long> {
 
+  String SUMMARY_SELECT = "select l.id as id, l.mobileNumber as mobileNumber, l.loanNumber as loanNumber, "
+      + "l.loanType as loanType, l.totalLoan as totalLoan, l.amountPaid as amountPaid, "
+      + "l.outstandingAmount as outstandingAmount from Loan l ";
+
+  String SUMMARY_FILTER = "where (:loanType is null or l.loanType = :loanType) "
+      + "and l.outstandingAmount between :minOutstandingAmount and :maxOutstandingAmount";
+
   Optional<Loan> findByMobileNumber(String mobileNumber);
 
   Optional<Loan> findByLoanNumber(String loanNumber);
+
+  /**
+   * Reads the loan and locks it until the end of the transaction - its values
+   * can't change before it is updated or deleted
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  Optional<Loan> findForUpdateByLoanNumber(String loanNumber);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  Optional<Loan> findForUpdateByMobileNumber(String mobileNumber);
+
+  /**
+   * Updates a loan in a single statement, provided it still belongs to the
+   * expected mobile number and - if given - still has the expected version
+   * 
+   * @return number of updated loans
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Loan l set l.mobileNumber = :mobileNumber, l.loanType = :loanType, l.totalLoan = :totalLoan, "
+      + "l.amountPaid = :amountPaid, l.outstandingAmount = :outstandingAmount, l.updatedAt = :updatedAt, "
+      + "l.updatedBy = :updatedBy, l.version = l.version + 1 "
+      + "where l.loanNumber = :loanNumber and l.mobileNumber = :expectedMobileNumber "
+      + "and (:expectedVersion is null or l.version = :expectedVersion)")
+  int updateLoan(
+      @Param("loanNumber") String loanNumber,
+      @Param("expectedMobileNumber") String expectedMobileNumber,
+      @Param("expectedVersion") Long expectedVersion,
+      @Param("mobileNumber") String mobileNumber,
+      @Param("loanType") String loanType,
+      @Param("totalLoan") int totalLoan,
+      @Param("amountPaid") int amountPaid,
+      @Param("outstandingAmount") int outstandingAmount,
+      @Param("updatedAt") LocalDateTime updatedAt,
+      @Param("updatedBy") String updatedBy);
+
+  /**
+   * 
+   * @return number of deleted loans
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("delete from Loan l where l.mobileNumber = :mobileNumber")
+  int deleteByMobileNumber(@Param("mobileNumber") String mobileNumber);
+
+  /**
+   * Applies a payment in a single statement - the database computes the new
+   * balance, so concurrent payments are never lost. Payments exceeding the
+   * outstanding amount are not applied
+   * 
+   * @return number of updated loans
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Loan l set l.amountPaid = l.amountPaid + :amount, l.outstandingAmount = l.outstandingAmount - :amount, "
+      + "l.updatedAt = :updatedAt, l.updatedBy = :updatedBy, l.version = l.version + 1 "
+      + "where l.loanNumber = :loanNumber and l.outstandingAmount >= :amount")
+  int applyPayment(
+      @Param("loanNumber") String loanNumber,
+      @Param("amount") int amount,
+      @Param("updatedAt") LocalDateTime updatedAt,
+      @Param("updatedBy") String updatedBy);
+
+  @Query("select l.mobileNumber from Loan l where l.mobileNumber in :mobileNumbers")
+  List<String> findMobileNumbersIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  List<Loan> findForUpdateByLoanNumberIn(Collection<String> loanNumbers);
+
+  @Query(SUMMARY_SELECT + "where l.mobileNumber in :mobileNumbers")
+  List<LoanSummary> findSummariesByMobileNumberIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+  @Query(SUMMARY_SELECT + "where l.loanNumber in :loanNumbers")
+  List<LoanSummary> findSummariesByLoanNumberIn(@Param("loanNumbers") Collection<String> loanNumbers);
+
+  /**
+   * Page of loans matching the filter - deep pages get slower, as the
+   * database has to skip all loans of the previous pages
+   * 
+   * @return page of loan summaries, including the total number of matching loans
+   */
+  @Query(value = SUMMARY_SELECT + SUMMARY_FILTER, countQuery = "select count(l) from Loan l " + SUMMARY_FILTER)
+  Page<LoanSummary> findSummaries(
+      @Param("loanType") String loanType,
+      @Param("minOutstandingAmount") int minOutstandingAmount,
+      @Param("maxOutstandingAmount") int maxOutstandingAmount,
+      Pageable pageable);
+
+  /**
+   * Loans matching the filter, following the given id - the database seeks to
+   * the id on the primary key, so every page costs the same
+   * 
+   * @return loan summaries ordered by id
+   */
+  @Query(SUMMARY_SELECT + SUMMARY_FILTER + " and l.id > :afterId order by l.id")
+  List<LoanSummary> findSummariesAfter(
+      @Param("loanType") String loanType,
+      @Param("minOutstandingAmount") int minOutstandingAmount,
+      @Param("maxOutstandingAmount") int maxOutstandingAmount,
+      @Param("afterId") long afterId,
+      Limit limit);
+
+  /**
+   * Totals per loan type, computed by the database
+   * 
+   * @return totals for each loan type, ordered by loan type
+   */
+  @Query("select l.loanType as loanType, count(l) as count, sum(l.totalLoan) as totalLoan, "
+      + "sum(l.amountPaid) as amountPaid, sum(l.outstandingAmount) as outstandingAmount, "
+      + "sum(case when l.totalLoan > 0 then cast(l.outstandingAmount as double) / l.totalLoan else 0.0 end) as utilisation "
+      + "from Loan l group by l.loanType order by l.loanType")
+  @Transactional(readOnly = true)
+  List<LoanTypeTotals> sumByLoanType();
+
+  // must be consumed within a transaction - rows are fetched from a cursor, not loaded all at once
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select l from Loan l order by l.id")
+  Stream<Loan> streamAll();
 }
@@ -0,0 +1,63 @@
+package com.jovisco.services.loans.repositories;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.jovisco.services.loans.entities.ReactiveLoan;
+
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveLoansRepository extends R2dbcRepository<ReactiveLoan, Long> {
+
+  Mono<ReactiveLoan> findByMobileNumber(String mobileNumber);
+
+  Mono<ReactiveLoan> findByLoanNumber(String loanNumber);
+
+  /**
+   * 
+   * @return number of updated loans
+   */
+  @Modifying
+  @Query("update loans set mobile_number = :mobileNumber, loan_type = :loanType, total_loan = :totalLoan, "
+      + "amount_paid = :amountPaid, outstanding_amount = :outstandingAmount, updated_at = :updatedAt, "
+      + "updated_by = :updatedBy, version = version + 1 where loan_number = :loanNumber")
+  Mono<Integer> updateByLoanNumber(
+      @Param("loanNumber") String loanNumber,
+      @Param("mobileNumber") String mobileNumber,
+      @Param("loanType") String loanType,
+      @Param("totalLoan") int totalLoan,
+      @Param("amountPaid") int amountPaid,
+      @Param("outstandingAmount") int outstandingAmount,
+      @Param("updatedAt") LocalDateTime updatedAt,
+      @Param("updatedBy") String updatedBy);
+
+  /**
+   * Applies a payment in a single statement, unless it exceeds the outstanding
+   * amount
+   * 
+   * @return number of updated loans
+   */
+  @Modifying
+  @Query("update loans set amount_paid = amount_paid + :amount, outstanding_amount = outstanding_amount - :amount, "
+      + "updated_at = :updatedAt, updated_by = :updatedBy, version = version + 1 "
+      + "where loan_number = :loanNumber and outstanding_amount >= :amount")
+  Mono<Integer> applyPayment(
+      @Param("loanNumber") String loanNumber,
+      @Param("amount") int amount,
+      @Param("updatedAt") LocalDateTime updatedAt,
+      @Param("updatedBy") String updatedBy);
+
+  /**
+   * 
+   * @return number of deleted loans
+   */
+  @Modifying
+  @Query("delete from loans where mobile_number = :mobileNumber")
+  Mono<Integer> deleteByMobileNumber(@Param("mobileNumber") String mobileNumber);
+}
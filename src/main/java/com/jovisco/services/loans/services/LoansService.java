@@ -1,7 +1,15 @@
 package com.jovisco.services.loans.services;
 
+import java.util.List;
+
+import com.jovisco.services.loans.dtos.BatchItemResponseDto;
 import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanBalanceDto;
 import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.LoansPageDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
+import com.jovisco.services.loans.dtos.PortfolioSummaryDto;
+import com.jovisco.services.loans.limits.AdminOperation;
 
 public interface LoansService {
 
@@ -11,6 +19,14 @@ public interface LoansService {
    */
   void createLoan(CreateLoanDto createLoanDto);
 
+  /**
+   * 
+   * @param createLoanDtos
+   * @return result for each requested loan, in request order
+   */
+  @AdminOperation
+  List<BatchItemResponseDto> createLoans(List<CreateLoanDto> createLoanDtos);
+
   /**
    * 
    * @param mobileNumber
@@ -18,17 +34,79 @@ public interface LoansService {
    */
   LoanDto fetchLoan(String mobileNumber);
 
+  /**
+   * 
+   * @param loanType             only loans of this type, all types if null
+   * @param minOutstandingAmount only loans with at least this outstanding
+   *                             amount, if not null
+   * @param maxOutstandingAmount only loans with at most this outstanding amount,
+   *                             if not null
+   * @param page                 number of the page, starting with 0
+   * @param size                 number of loans per page
+   * @return page of loans ordered by id, with total number of loans
+   */
+  LoansPageDto listLoans(String loanType, Integer minOutstandingAmount, Integer maxOutstandingAmount, int page,
+      int size);
+
+  /**
+   * 
+   * @param loanType             only loans of this type, all types if null
+   * @param minOutstandingAmount only loans with at least this outstanding
+   *                             amount, if not null
+   * @param maxOutstandingAmount only loans with at most this outstanding amount,
+   *                             if not null
+   * @param after                cursor of the previous page, 0 for the first page
+   * @param size                 number of loans per page
+   * @return page of loans ordered by id, with the cursor of the next page
+   */
+  LoansPageDto listLoansAfter(String loanType, Integer minOutstandingAmount, Integer maxOutstandingAmount,
+      long after, int size);
+
   /**
    * 
    * @param loanDto
-   * @return boolean indicating if update was successful
+   * @return true if the loan was updated, false if it has been changed or
+   *         deleted concurrently
+   * @throws com.jovisco.services.loans.exceptions.ResourceNotFoundException if
+   *         there is no loan with the given loan number
    */
   boolean updateLoan(LoanDto loanDto);
 
+  /**
+   * 
+   * @param loanDto
+   * @param expectedVersion version of the loan the update is based on
+   * @return true if the loan was updated, false if it no longer has the
+   *         expected version, or has been changed or deleted concurrently
+   * @throws com.jovisco.services.loans.exceptions.ResourceNotFoundException if
+   *         there is no loan with the given loan number
+   */
+  boolean updateLoan(LoanDto loanDto, long expectedVersion);
+
   /**
    * 
    * @param mobileNumber
-   * @return boolean indicating if delete was successful
+   * @return true if the loan was deleted
+   * @throws com.jovisco.services.loans.exceptions.ResourceNotFoundException if
+   *         there is no loan for the given mobile number
    */
   boolean deleteLoan(String mobileNumber);
+
+  /**
+   * 
+   * @param loanNumber
+   * @param paymentDto
+   * @return balance of the loan after the payment
+   * @throws com.jovisco.services.loans.exceptions.ResourceNotFoundException if
+   *         there is no loan with the given loan number
+   * @throws com.jovisco.services.loans.exceptions.PaymentRejectedException if
+   *         the payment exceeds the outstanding amount
+   */
+  LoanBalanceDto postPayment(String loanNumber, PaymentDto paymentDto);
+
+  /**
+   * 
+   * @return totals for each loan type, ordered by loan type
+   */
+  List<PortfolioSummaryDto> fetchPortfolioSummary();
 }
@@ -1,16 +1,42 @@
 package com.jovisco.services.loans.services;
 
-import java.util.Random;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.jovisco.services.loans.cache.LoansCache;
+import com.jovisco.services.loans.cache.PortfolioCache;
 import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.datasource.ReplicaLagGuard;
+import com.jovisco.services.loans.dtos.BatchItemResponseDto;
 import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanBalanceDto;
 import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.LoansPageDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
+import com.jovisco.services.loans.dtos.PortfolioSummaryDto;
 import com.jovisco.services.loans.entities.Loan;
+import com.jovisco.services.loans.generators.LoanNumberGenerator;
+import com.jovisco.services.loans.logging.RequestLogContext;
 import com.jovisco.services.loans.exceptions.LoanAlreadyExistsException;
+import com.jovisco.services.loans.exceptions.PaymentRejectedException;
 import com.jovisco.services.loans.exceptions.ResourceNotFoundException;
 import com.jovisco.services.loans.mappers.LoanMapper;
+import com.jovisco.services.loans.metrics.LoansMetrics;
+import com.jovisco.services.loans.repositories.LoanSummary;
 import com.jovisco.services.loans.repositories.LoansRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -21,30 +47,127 @@ public class LoansServiceImpl implements LoansService {
 
   private final LoansRepository loansRepository;
 
+  private final LoansCache loansCache;
+
+  private final PortfolioCache portfolioCache;
+
+  private final LoanNumberGenerator loanNumberGenerator;
+
+  private final AuditorAware<String> auditorAware;
+
+  private final LoansMetrics loansMetrics;
+
+  private final ReplicaLagGuard replicaLagGuard;
+
+  // a transaction of its own, so that the portfolio totals learn about the loan with the commit
+  @Transactional
   @Override
   public void createLoan(CreateLoanDto createLoanDto) {
+    loansMetrics.time(LoansMetrics.CREATE, () -> doCreateLoan(createLoanDto));
+  }
 
-    // first check if there is already a loan for the given mobile number
-    loansRepository
-        .findByMobileNumber(createLoanDto.getMobileNumber())
-        .ifPresent(c -> {
-          throw new LoanAlreadyExistsException("Loan already exists for mobile number: " + createLoanDto
-              .getMobileNumber());
-        });
+  private void doCreateLoan(CreateLoanDto createLoanDto) {
 
     // prepare data for new loan
     var loan = buildNewLoan(createLoanDto);
-    loansRepository.save(loan);
 
+    // insert right away - an existing loan for the given mobile number is detected by the unique index
+    try {
+      loansRepository.saveAndFlush(loan);
+    } catch (DataIntegrityViolationException e) {
+      if (isMobileNumberViolation(e)) {
+        loansMetrics.count(LoansMetrics.CREATE, LoansMetrics.DUPLICATE);
+        throw new LoanAlreadyExistsException("Loan already exists for mobile number: " + createLoanDto
+            .getMobileNumber());
+      }
+      throw e;
+    }
+
+    loansCache.evict(loan.getMobileNumber());
+    addToPortfolio(loan);
+    RequestLogContext.addRows(1);
+    loansMetrics.count(LoansMetrics.CREATE, LoansMetrics.CREATED);
   }
 
-  private Loan buildNewLoan(CreateLoanDto createLoanDto) {
+  @Transactional
+  @Override
+  public List<BatchItemResponseDto> createLoans(List<CreateLoanDto> createLoanDtos) {
+
+    // first check which mobile numbers already have a loan - using set based queries
+    var knownMobileNumbers = findExistingMobileNumbers(createLoanDtos);
+
+    // prepare data for new loans - duplicates within the request itself are rejected as well
+    var results = new ArrayList<BatchItemResponseDto>(createLoanDtos.size());
+    var loans = new ArrayList<Loan>(createLoanDtos.size());
+    for (var createLoanDto : createLoanDtos) {
+      var mobileNumber = createLoanDto.getMobileNumber();
+      if (knownMobileNumbers.add(mobileNumber)) {
+        loans.add(buildNewLoan(createLoanDto));
+        results.add(buildBatchItemResponse(mobileNumber, LoansConstants.STATUS_201, LoansConstants.MESSAGE_201));
+      } else {
+        results.add(buildBatchItemResponse(mobileNumber, LoansConstants.STATUS_400,
+            LoansConstants.MESSAGE_400_ALREADY_EXISTS));
+      }
+    }
+
+    // insert new loans - hibernate sends them as jdbc batches
+    loansRepository.saveAll(loans);
+
+    loansCache.evict(loans.stream().map(Loan::getMobileNumber).toList());
+    loans.forEach(this::addToPortfolio);
+    RequestLogContext.addRows(loans.size());
+
+    return results;
+  }
+
+  private void addToPortfolio(Loan loan) {
+    portfolioCache.addLoan(loan.getLoanType(), loan.getTotalLoan(), loan.getAmountPaid(), loan.getOutstandingAmount());
+  }
 
-    long randomNumber = 100000000000L + new Random().nextInt(900000000);
+  private void removeFromPortfolio(Loan loan) {
+    portfolioCache.removeLoan(loan.getLoanType(), loan.getTotalLoan(), loan.getAmountPaid(),
+        loan.getOutstandingAmount());
+  }
+
+  // shared with the import, which relies on the same unique index
+  static boolean isMobileNumberViolation(DataIntegrityViolationException exception) {
+
+    return exception.getCause() instanceof ConstraintViolationException violation
+        && violation.getConstraintName() != null
+        && violation.getConstraintName().toLowerCase().contains(LoansConstants.MOBILE_NUMBER_INDEX);
+  }
+
+  private Set<String> findExistingMobileNumbers(List<CreateLoanDto> createLoanDtos) {
+
+    var mobileNumbers = createLoanDtos.stream()
+        .map(CreateLoanDto::getMobileNumber)
+        .distinct()
+        .toList();
+
+    // query in chunks to keep the size of the IN list reasonable
+    var existing = new HashSet<String>();
+    for (int from = 0; from < mobileNumbers.size(); from += LoansConstants.BATCH_LOOKUP_SIZE) {
+      var to = Math.min(from + LoansConstants.BATCH_LOOKUP_SIZE, mobileNumbers.size());
+      existing.addAll(loansRepository.findMobileNumbersIn(mobileNumbers.subList(from, to)));
+    }
+
+    return existing;
+  }
+
+  private BatchItemResponseDto buildBatchItemResponse(String mobileNumber, String statusCode, String statusMessage) {
+
+    return BatchItemResponseDto.builder()
+        .mobileNumber(mobileNumber)
+        .statusCode(statusCode)
+        .statusMessage(statusMessage)
+        .build();
+  }
+
+  private Loan buildNewLoan(CreateLoanDto createLoanDto) {
 
     return Loan.builder()
         .mobileNumber(createLoanDto.getMobileNumber())
-        .loanNumber(Long.toString(randomNumber))
+        .loanNumber(loanNumberGenerator.nextLoanNumber())
         .loanType(LoansConstants.HOME_LOAN)
         .totalLoan(LoansConstants.NEW_LOAN_LIMIT)
         .amountPaid(0)
@@ -52,52 +175,192 @@ public class LoansServiceImpl implements LoansService {
         .build();
   }
 
+  // the cached DTO is shared between callers and must not be modified - cache hits are not timed, see cache.gets
+  // and don't begin a transaction, see CacheConfig
+  @Cacheable(cacheNames = LoansCache.LOANS_CACHE, key = "#mobileNumber")
+  @Transactional(readOnly = true)
   @Override
   public LoanDto fetchLoan(String mobileNumber) {
-    var loan = loansRepository
-        .findByMobileNumber(mobileNumber)
-        .orElseThrow(() -> new ResourceNotFoundException("Loan", "mobile number", mobileNumber));
+    return loansMetrics.time(LoansMetrics.FETCH, () -> replicaLagGuard.read(mobileNumber, () -> {
+      var loan = loansRepository
+          .findByMobileNumber(mobileNumber)
+          .orElseThrow(() -> notFound(LoansMetrics.FETCH, "mobile number", mobileNumber));
+      loansMetrics.count(LoansMetrics.FETCH, LoansMetrics.FOUND);
+      RequestLogContext.addRows(1);
+
+      return LoanMapper.mapToLoanDto(loan);
+    }));
+  }
 
-    return LoanMapper.mapToLoanDto(loan);
+  private ResourceNotFoundException notFound(String operation, String fieldName, String fieldValue) {
+
+    loansMetrics.count(operation, LoansMetrics.NOT_FOUND);
+    return new ResourceNotFoundException("Loan", fieldName, fieldValue);
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public LoansPageDto listLoans(String loanType, Integer minOutstandingAmount, Integer maxOutstandingAmount,
+      int page, int size) {
+
+    var loans = loansRepository.findSummaries(
+        loanType,
+        minOutstandingAmount != null ? minOutstandingAmount : 0,
+        maxOutstandingAmount != null ? maxOutstandingAmount : Integer.MAX_VALUE,
+        PageRequest.of(page, size, Sort.by("id")));
+    RequestLogContext.addRows(loans.getNumberOfElements());
+
+    return LoansPageDto.builder()
+        .loans(loans.map(LoanMapper::mapToLoanDto).getContent())
+        .page(page)
+        .size(size)
+        .totalElements(loans.getTotalElements())
+        .totalPages(loans.getTotalPages())
+        .nextCursor(loans.hasNext() ? lastId(loans.getContent()) : null)
+        .build();
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public LoansPageDto listLoansAfter(String loanType, Integer minOutstandingAmount, Integer maxOutstandingAmount,
+      long after, int size) {
+
+    // one more loan than requested tells if there is a next page - without counting
+    var loans = loansRepository.findSummariesAfter(
+        loanType,
+        minOutstandingAmount != null ? minOutstandingAmount : 0,
+        maxOutstandingAmount != null ? maxOutstandingAmount : Integer.MAX_VALUE,
+        after,
+        Limit.of(size + 1));
+    RequestLogContext.addRows(loans.size());
+    var hasNext = loans.size() > size;
+    var content = hasNext ? loans.subList(0, size) : loans;
+
+    return LoansPageDto.builder()
+        .loans(content.stream().map(LoanMapper::mapToLoanDto).toList())
+        .size(size)
+        .nextCursor(hasNext ? lastId(content) : null)
+        .build();
   }
 
+  private Long lastId(List<LoanSummary> loans) {
+    return loans.isEmpty() ? null : loans.get(loans.size() - 1).getId();
+  }
+
+  @Transactional
   @Override
   public boolean updateLoan(LoanDto loanDto) {
+    return timedUpdateLoan(loanDto, null);
+  }
 
-    // first check if loan exists
-    var loan = loansRepository
-        .findByLoanNumber(loanDto.getLoanNumber())
-        .orElseThrow(() -> new ResourceNotFoundException("Loan", "loan number", loanDto.getLoanNumber()));
+  @Transactional
+  @Override
+  public boolean updateLoan(LoanDto loanDto, long expectedVersion) {
+    return timedUpdateLoan(loanDto, expectedVersion);
+  }
+
+  private boolean timedUpdateLoan(LoanDto loanDto, Long expectedVersion) {
 
-    // update values as requested
-    var updates = modifyLoan(loan, loanDto);
-    loansRepository.save(updates);
+    var isUpdated = loansMetrics.time(LoansMetrics.UPDATE, () -> doUpdateLoan(loanDto, expectedVersion));
+    loansMetrics.count(LoansMetrics.UPDATE, isUpdated ? LoansMetrics.UPDATED : LoansMetrics.CONFLICT);
 
-    return true;
+    return isUpdated;
   }
 
-  private Loan modifyLoan(Loan loan, LoanDto loanDto) {
+  private boolean doUpdateLoan(LoanDto loanDto, Long expectedVersion) {
+
+    // the loan is read and locked first - its previous values are taken off the portfolio totals, and its previous
+    // mobile number is evicted as well
+    var loanNumber = loanDto.getLoanNumber();
+    var previous = loansRepository
+        .findForUpdateByLoanNumber(loanNumber)
+        .orElseThrow(() -> notFound(LoansMetrics.UPDATE, "loan number", loanNumber));
 
-    loan.setMobileNumber(loanDto.getMobileNumber());
-    loan.setLoanType(loanDto.getLoanType());
-    loan.setTotalLoan(loanDto.getTotalLoan());
-    loan.setAmountPaid(loanDto.getAmountPaid());
-    loan.setOutstandingAmount(loanDto.getOutstandingAmount());
+    // not updated if the loan has been changed since the given version was read
+    var isUpdated = executeUpdate(loanDto, previous.getMobileNumber(), expectedVersion) > 0;
+    RequestLogContext.addRows(isUpdated ? 1 : 0);
+    loansCache.evict(previous.getMobileNumber(), loanDto.getMobileNumber());
+    if (isUpdated) {
+      removeFromPortfolio(previous);
+      portfolioCache.addLoan(loanDto.getLoanType(), loanDto.getTotalLoan(), loanDto.getAmountPaid(),
+          loanDto.getOutstandingAmount());
+    }
 
-    return loan;
+    return isUpdated;
   }
 
+  private int executeUpdate(LoanDto loanDto, String expectedMobileNumber, Long expectedVersion) {
+
+    // a bulk update bypasses the auditing entity listener
+    return loansRepository.updateLoan(
+        loanDto.getLoanNumber(),
+        expectedMobileNumber,
+        expectedVersion,
+        loanDto.getMobileNumber(),
+        loanDto.getLoanType(),
+        loanDto.getTotalLoan(),
+        loanDto.getAmountPaid(),
+        loanDto.getOutstandingAmount(),
+        LocalDateTime.now(),
+        auditorAware.getCurrentAuditor().orElse(null));
+  }
+
+  @Transactional
   @Override
   public boolean deleteLoan(String mobileNumber) {
 
-    // first check if loan exists
+    return loansMetrics.time(LoansMetrics.DELETE, () -> {
+      // the loan is read and locked first - its values are taken off the portfolio totals
+      var loan = loansRepository
+          .findForUpdateByMobileNumber(mobileNumber)
+          .orElseThrow(() -> notFound(LoansMetrics.DELETE, "mobile number", mobileNumber));
+      var deleted = loansRepository.deleteByMobileNumber(mobileNumber);
+      RequestLogContext.addRows(deleted);
+
+      loansCache.evict(mobileNumber);
+      removeFromPortfolio(loan);
+      loansMetrics.count(LoansMetrics.DELETE, LoansMetrics.DELETED);
+
+      return true;
+    });
+  }
+
+  @Transactional
+  @Override
+  public LoanBalanceDto postPayment(String loanNumber, PaymentDto paymentDto) {
+
+    // the balance is changed by the database - no read-modify-write, so concurrent payments can't overwrite each other
+    var amount = paymentDto.getAmount();
+    var updated = loansRepository.applyPayment(loanNumber, amount, LocalDateTime.now(),
+        auditorAware.getCurrentAuditor().orElse(null));
+
+    // the updated row stays locked until commit - the balance read here is the one after this payment
     var loan = loansRepository
-        .findByMobileNumber(mobileNumber)
-        .orElseThrow(() -> new ResourceNotFoundException("Loan", "mobile number", mobileNumber));
+        .findByLoanNumber(loanNumber)
+        .orElseThrow(() -> new ResourceNotFoundException("Loan", "loan number", loanNumber));
+    if (updated == 0) {
+      throw new PaymentRejectedException("Payment of " + amount + " exceeds outstanding amount of loan " + loanNumber);
+    }
+
+    RequestLogContext.addRows(updated);
+    loansCache.evict(loan.getMobileNumber());
+    portfolioCache.addPayment(loan.getLoanType(), loan.getTotalLoan(), amount);
+
+    return LoanMapper.mapToLoanBalanceDto(loan);
+  }
+
+  // no transaction, nor a connection, for the totals in memory - the query has a read-only transaction of its own
+  @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+  @Override
+  public List<PortfolioSummaryDto> fetchPortfolioSummary() {
 
-    // delete loan by id
-    loansRepository.deleteById(loan.getId());
+    // served from memory unless switched off - then every request runs the grouped query
+    if (portfolioCache.isEnabled()) {
+      return portfolioCache.getSummary();
+    }
 
-    return true;
+    return loansRepository.sumByLoanType().stream()
+        .map(LoanMapper::mapToPortfolioSummaryDto)
+        .toList();
   }
 }
@@ -0,0 +1,25 @@
+package com.jovisco.services.loans.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.jovisco.services.loans.dtos.ImportResultDto;
+import com.jovisco.services.loans.limits.AdminOperation;
+
+@AdminOperation
+public interface LoansTransferService {
+
+  /**
+   * 
+   * @param outputStream stream to write all loans to - one JSON document per line
+   */
+  void exportLoans(OutputStream outputStream) throws IOException;
+
+  /**
+   * 
+   * @param inputStream stream to read loans from - one JSON document per line
+   * @return counts of created, updated and rejected loans
+   */
+  ImportResultDto importLoans(InputStream inputStream) throws IOException;
+}
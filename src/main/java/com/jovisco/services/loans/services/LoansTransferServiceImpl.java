@@ -0,0 +1,232 @@
+package com.jovisco.services.loans.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.jovisco.services.loans.cache.LoansCache;
+import com.jovisco.services.loans.cache.PortfolioCache;
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.ImportResultDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.entities.Loan;
+import com.jovisco.services.loans.mappers.LoanMapper;
+import com.jovisco.services.loans.repositories.LoansRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class LoansTransferServiceImpl implements LoansTransferService {
+
+  private static final int CHUNK_ATTEMPTS = 2;
+
+  private final LoansRepository loansRepository;
+
+  private final LoansCache loansCache;
+
+  private final PortfolioCache portfolioCache;
+
+  private final EntityManager entityManager;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final ObjectMapper objectMapper;
+
+  private final Validator validator;
+
+  @Transactional(readOnly = true)
+  @Override
+  public void exportLoans(OutputStream outputStream) throws IOException {
+
+    try (var loans = loansRepository.streamAll();
+        var generator = objectMapper.createGenerator(outputStream)) {
+
+      // one document per line - the generator must neither close the response nor separate values itself
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+
+      for (var iterator = loans.iterator(); iterator.hasNext();) {
+        var loan = iterator.next();
+        generator.writeObject(LoanMapper.mapToLoanDto(loan));
+        generator.writeRaw('\n');
+
+        // detach the loan so that the persistence context does not grow with the table
+        entityManager.detach(loan);
+      }
+    }
+  }
+
+  @Override
+  public ImportResultDto importLoans(InputStream inputStream) throws IOException {
+
+    var result = ImportResultDto.builder()
+        .errors(new ArrayList<>())
+        .build();
+    var loanReader = objectMapper.readerFor(LoanDto.class);
+
+    // collect valid lines by loan number and write them chunk by chunk
+    Map<String, ImportLine> chunk = new LinkedHashMap<>();
+    try (var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+      String line;
+      long lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+
+        var loanDto = readLoan(loanReader, line, lineNumber, result);
+        if (loanDto != null) {
+          chunk.put(loanDto.getLoanNumber(), new ImportLine(lineNumber, loanDto));
+        }
+
+        if (chunk.size() >= LoansConstants.TRANSFER_CHUNK_SIZE) {
+          writeChunk(chunk, result);
+          chunk.clear();
+        }
+      }
+    }
+
+    if (!chunk.isEmpty()) {
+      writeChunk(chunk, result);
+    }
+
+    log.debug("importLoans finished: {}", result);
+
+    return result;
+  }
+
+  private LoanDto readLoan(ObjectReader loanReader, String line, long lineNumber, ImportResultDto result) {
+
+    LoanDto loanDto;
+    try {
+      loanDto = loanReader.readValue(line);
+    } catch (JsonProcessingException e) {
+      reject(result, lineNumber, e.getOriginalMessage());
+      return null;
+    }
+
+    // apply the same constraints as the REST API
+    var violations = validator.validate(loanDto);
+    if (!violations.isEmpty()) {
+      reject(result, lineNumber, violations.stream()
+          .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+          .sorted()
+          .collect(Collectors.joining(", ")));
+      return null;
+    }
+
+    return loanDto;
+  }
+
+  private void reject(ImportResultDto result, long lineNumber, String reason) {
+
+    result.setRejected(result.getRejected() + 1);
+    if (result.getErrors().size() < LoansConstants.TRANSFER_MAX_ERRORS) {
+      result.getErrors().add("line " + lineNumber + ": " + reason);
+    }
+  }
+
+  private void writeChunk(Map<String, ImportLine> chunk, ImportResultDto result) {
+
+    // mobile numbers taken concurrently are only detected by the unique index - the next attempt rejects their lines
+    ChunkResult chunkResult;
+    for (int attempt = 1;; attempt++) {
+      try {
+        chunkResult = transactionTemplate.execute(status -> writeLoans(chunk));
+        break;
+      } catch (DataIntegrityViolationException e) {
+        if (attempt >= CHUNK_ATTEMPTS || !LoansServiceImpl.isMobileNumberViolation(e)) {
+          throw e;
+        }
+        log.debug("importLoans chunk retried after a mobile number conflict: {}", e.getMessage());
+      }
+    }
+
+    chunkResult.rejected().forEach(line -> reject(result, line.lineNumber(),
+        "mobileNumber: " + LoansConstants.MESSAGE_400_ALREADY_EXISTS));
+    result.setCreated(result.getCreated() + chunkResult.created());
+    result.setUpdated(result.getUpdated() + chunkResult.updated());
+  }
+
+  // each chunk is committed on its own, so memory stays flat regardless of the input size
+  private ChunkResult writeLoans(Map<String, ImportLine> chunk) {
+
+    // look up and lock existing loans for the whole chunk with a single query
+    var existing = new HashMap<String, Loan>();
+    loansRepository.findForUpdateByLoanNumberIn(chunk.keySet())
+        .forEach(loan -> existing.put(loan.getLoanNumber(), loan));
+
+    // ... and the loans holding the mobile numbers of the chunk - earlier chunks are already committed
+    var owners = new HashMap<String, String>();
+    loansRepository.findSummariesByMobileNumberIn(chunk.values().stream()
+        .map(line -> line.loanDto().getMobileNumber())
+        .collect(Collectors.toSet()))
+        .forEach(loan -> owners.put(loan.getMobileNumber(), loan.getLoanNumber()));
+
+    // a mobile number held by another loan, or by an earlier line of the chunk, is rejected like in createLoans
+    var rejected = new ArrayList<ImportLine>();
+    List<Loan> loans = new ArrayList<>(chunk.size());
+    List<String> mobileNumbers = new ArrayList<>(chunk.size() + existing.size());
+    var updated = 0;
+    for (var line : chunk.values()) {
+      var loanDto = line.loanDto();
+      var owner = owners.putIfAbsent(loanDto.getMobileNumber(), loanDto.getLoanNumber());
+      if (owner != null && !owner.equals(loanDto.getLoanNumber())) {
+        rejected.add(line);
+        continue;
+      }
+
+      // remember previous and new mobile numbers - both might be cached, take previous values off the totals
+      var loan = existing.get(loanDto.getLoanNumber());
+      if (loan != null) {
+        mobileNumbers.add(loan.getMobileNumber());
+        portfolioCache.removeLoan(loan.getLoanType(), loan.getTotalLoan(), loan.getAmountPaid(),
+            loan.getOutstandingAmount());
+        updated++;
+      }
+      loans.add(loan == null ? LoanMapper.mapToLoan(loanDto) : LoanMapper.mapToLoan(loanDto, loan));
+      mobileNumbers.add(loanDto.getMobileNumber());
+      portfolioCache.addLoan(loanDto.getLoanType(), loanDto.getTotalLoan(), loanDto.getAmountPaid(),
+          loanDto.getOutstandingAmount());
+    }
+
+    // flushed by the repository, so that a violated index is translated like for any other write
+    loansRepository.saveAll(loans);
+    loansRepository.flush();
+    entityManager.clear();
+
+    loansCache.evict(mobileNumbers);
+
+    return new ChunkResult(loans.size() - updated, updated, rejected);
+  }
+
+  private record ImportLine(long lineNumber, LoanDto loanDto) {
+  }
+
+  private record ChunkResult(int created, int updated, List<ImportLine> rejected) {
+  }
+}
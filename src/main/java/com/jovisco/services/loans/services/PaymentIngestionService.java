@@ -0,0 +1,18 @@
+package com.jovisco.services.loans.services;
+
+import com.jovisco.services.loans.events.PaymentEvent;
+
+public interface PaymentIngestionService {
+
+  /**
+   * Queues a payment to be written with the next batch - payments for the same
+   * loan are applied in the order they are submitted
+   * 
+   * @param paymentEvent
+   * @return false if the pipeline is saturated and the payment was not accepted -
+   *         the caller should retry later, e.g. by not acknowledging the message
+   * @throws IllegalArgumentException if the amount is not greater than zero -
+   *                                  the payment must not be retried
+   */
+  boolean submit(PaymentEvent paymentEvent);
+}
@@ -0,0 +1,355 @@
+package com.jovisco.services.loans.services;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jovisco.services.loans.cache.LoansCache;
+import com.jovisco.services.loans.cache.PortfolioCache;
+import com.jovisco.services.loans.events.PaymentEvent;
+import com.jovisco.services.loans.limits.LoansBulkheads;
+import com.jovisco.services.loans.repositories.LoanSummary;
+import com.jovisco.services.loans.repositories.LoansRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Payment ingestion for bursts of payment events: events are partitioned by
+ * loan number across a fixed set of lanes, each lane is drained by a single
+ * worker - so payments for the same loan keep their order without any locking.
+ * A worker collects events until the batch is full or the linger time has
+ * passed, merges payments for the same loan, and writes them as one jdbc batch
+ * of conditional updates.
+ *
+ * Lane queues are bounded - a saturated lane refuses further events, which is
+ * the backpressure signal for the source of the events.
+ */
+@Slf4j
+@Service
+public class PaymentIngestionServiceImpl implements PaymentIngestionService, SmartLifecycle {
+
+  // same conditional update as LoansRepository#applyPayment - a payment never overdraws a loan
+  private static final String APPLY_PAYMENT_UPDATE = "update loans set amount_paid = amount_paid + ?, "
+      + "outstanding_amount = outstanding_amount - ?, updated_at = ?, updated_by = ?, version = version + 1 "
+      + "where loan_number = ? and outstanding_amount >= ?";
+
+  private static final String METRICS_PREFIX = "loans.payments.ingestion";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final LoansRepository loansRepository;
+
+  private final LoansCache loansCache;
+
+  private final PortfolioCache portfolioCache;
+
+  private final AuditorAware<String> auditorAware;
+
+  private final ObjectProvider<LoansBulkheads> loansBulkheads;
+
+  private final List<Lane> lanes;
+
+  private final int batchSize;
+
+  private final Duration linger;
+
+  private final Duration offerTimeout;
+
+  private final Timer flushTimer;
+
+  private final DistributionSummary batchSizeSummary;
+
+  private final Counter appliedCounter;
+
+  private final Counter rejectedCounter;
+
+  private final Counter refusedCounter;
+
+  private final Counter failedCounter;
+
+  private volatile boolean running;
+
+  public PaymentIngestionServiceImpl(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      LoansRepository loansRepository,
+      LoansCache loansCache,
+      PortfolioCache portfolioCache,
+      AuditorAware<String> auditorAware,
+      ObjectProvider<LoansBulkheads> loansBulkheads,
+      MeterRegistry meterRegistry,
+      @Value("${loans.payments.ingestion.lanes:4}") int laneCount,
+      @Value("${loans.payments.ingestion.queue-capacity:10000}") int queueCapacity,
+      @Value("${loans.payments.ingestion.batch-size:500}") int batchSize,
+      @Value("${loans.payments.ingestion.linger:50ms}") Duration linger,
+      @Value("${loans.payments.ingestion.offer-timeout:1s}") Duration offerTimeout) {
+
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.loansRepository = loansRepository;
+    this.loansCache = loansCache;
+    this.portfolioCache = portfolioCache;
+    this.auditorAware = auditorAware;
+    this.loansBulkheads = loansBulkheads;
+    this.batchSize = batchSize;
+    this.linger = linger;
+    this.offerTimeout = offerTimeout;
+
+    this.lanes = new ArrayList<>(laneCount);
+    for (int i = 0; i < laneCount; i++) {
+      var lane = new Lane(i, new ArrayBlockingQueue<>(queueCapacity));
+      Gauge.builder(METRICS_PREFIX + ".queue.depth", lane.queue, BlockingQueue::size)
+          .description("Payment events waiting to be written")
+          .tag("lane", Integer.toString(i))
+          .register(meterRegistry);
+      lanes.add(lane);
+    }
+
+    this.flushTimer = Timer.builder(METRICS_PREFIX + ".flush")
+        .description("Time to write a batch of payments")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    this.batchSizeSummary = DistributionSummary.builder(METRICS_PREFIX + ".batch.size")
+        .description("Payment events per batch, before merging")
+        .register(meterRegistry);
+    this.appliedCounter = eventCounter(meterRegistry, "applied");
+    this.rejectedCounter = eventCounter(meterRegistry, "rejected");
+    this.refusedCounter = eventCounter(meterRegistry, "refused");
+    this.failedCounter = eventCounter(meterRegistry, "failed");
+  }
+
+  private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+
+    return Counter.builder(METRICS_PREFIX + ".events")
+        .description("Payment events by outcome")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public boolean submit(PaymentEvent paymentEvent) {
+
+    if (!running) {
+      throw new IllegalStateException("Payment ingestion is not running");
+    }
+
+    // a negative amount would pass the outstanding amount check, and raise the debt instead of paying it off
+    if (paymentEvent.amount() <= 0) {
+      rejectedCounter.increment();
+      throw new IllegalArgumentException("Payment amount must be greater than zero: " + paymentEvent.amount());
+    }
+
+    // the same loan always goes to the same lane
+    var lane = lanes.get(Math.floorMod(paymentEvent.loanNumber().hashCode(), lanes.size()));
+    try {
+      if (lane.queue.offer(paymentEvent, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+        return true;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    refusedCounter.increment();
+    return false;
+  }
+
+  @Override
+  public void start() {
+
+    running = true;
+    lanes.forEach(lane -> lane.worker = Thread.ofPlatform()
+        .name("payment-lane-" + lane.index)
+        .daemon(true)
+        .start(lane));
+  }
+
+  // queued events are still written before the application context is closed
+  @Override
+  public void stop() {
+
+    running = false;
+    for (var lane : lanes) {
+      try {
+        lane.worker.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void flush(List<PaymentEvent> events) {
+
+    batchSizeSummary.record(events.size());
+    flushTimer.record(() -> {
+      try {
+        // counted once committed
+        var applied = inBulkhead(() -> transactionTemplate.execute(status -> write(events)));
+        appliedCounter.increment(applied);
+        rejectedCounter.increment(events.size() - applied);
+      } catch (RuntimeException e) {
+        // events are lost for this service - the source has to redeliver them
+        log.error("Failed to write {} payment events", events.size(), e);
+        failedCounter.increment(events.size());
+      }
+    });
+  }
+
+  // batches hold a connection of the pool - within a slice of their own, unless bulkheads are switched off
+  private <T> T inBulkhead(Supplier<T> batch) {
+
+    var bulkheads = loansBulkheads.getIfAvailable();
+    return bulkheads != null ? bulkheads.ingest(batch) : batch.get();
+  }
+
+  // returns the number of payments applied - the others exceed the outstanding amount, or the loan does not exist
+  private int write(List<PaymentEvent> events) {
+
+    // merge payments for the same loan - keeping the order of the loans as well as of their payments
+    var paymentsByLoan = new LinkedHashMap<String, List<PaymentEvent>>();
+    events.forEach(event -> paymentsByLoan.computeIfAbsent(event.loanNumber(), k -> new ArrayList<>()).add(event));
+
+    var updatedAt = Timestamp.valueOf(LocalDateTime.now());
+    var updatedBy = auditorAware.getCurrentAuditor().orElse(null);
+    var loanNumbers = new ArrayList<>(paymentsByLoan.keySet());
+    var counts = jdbcTemplate.batchUpdate(APPLY_PAYMENT_UPDATE, loanNumbers, loanNumbers.size(),
+        (ps, loanNumber) -> {
+          var amount = paymentsByLoan.get(loanNumber).stream().mapToInt(PaymentEvent::amount).sum();
+          ps.setInt(1, amount);
+          ps.setInt(2, amount);
+          ps.setTimestamp(3, updatedAt);
+          ps.setString(4, updatedBy);
+          ps.setString(5, loanNumber);
+          ps.setInt(6, amount);
+        })[0];
+
+    // payments applied to each loan - for the portfolio totals
+    var appliedAmounts = new HashMap<String, Integer>();
+    var applied = 0;
+    for (int i = 0; i < loanNumbers.size(); i++) {
+      var loanNumber = loanNumbers.get(i);
+      var payments = paymentsByLoan.get(loanNumber);
+      if (counts[i] > 0) {
+        applied += payments.size();
+        appliedAmounts.put(loanNumber, payments.stream().mapToInt(PaymentEvent::amount).sum());
+      } else if (counts[i] == Statement.SUCCESS_NO_INFO) {
+        // drivers rewriting batches might not report row counts - the totals are recomputed instead
+        applied += payments.size();
+        portfolioCache.invalidate();
+      } else if (payments.size() > 1) {
+        // the merged amount exceeds the outstanding amount - some of the payments might still fit
+        for (var payment : payments) {
+          if (applySingle(payment, updatedAt, updatedBy) > 0) {
+            applied++;
+            appliedAmounts.merge(loanNumber, payment.amount(), Integer::sum);
+          }
+        }
+      }
+    }
+
+    // the updated loans are locked until commit - evicted and added to the totals once the transaction is committed
+    var loans = loansRepository.findSummariesByLoanNumberIn(loanNumbers);
+    loansCache.evict(loans.stream().map(LoanSummary::getMobileNumber).toList());
+    for (var loan : loans) {
+      var amount = appliedAmounts.get(loan.getLoanNumber());
+      if (amount != null) {
+        portfolioCache.addPayment(loan.getLoanType(), loan.getTotalLoan(), amount);
+      }
+    }
+
+    return applied;
+  }
+
+  private int applySingle(PaymentEvent payment, Timestamp updatedAt, String updatedBy) {
+
+    return jdbcTemplate.update(APPLY_PAYMENT_UPDATE, payment.amount(), payment.amount(), updatedAt, updatedBy,
+        payment.loanNumber(), payment.amount());
+  }
+
+  private final class Lane implements Runnable {
+
+    private final int index;
+
+    private final BlockingQueue<PaymentEvent> queue;
+
+    private Thread worker;
+
+    private Lane(int index, BlockingQueue<PaymentEvent> queue) {
+      this.index = index;
+      this.queue = queue;
+    }
+
+    @Override
+    public void run() {
+
+      var batch = new ArrayList<PaymentEvent>(batchSize);
+      while (running || !queue.isEmpty()) {
+        try {
+          collect(batch);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        } finally {
+          if (!batch.isEmpty()) {
+            flush(batch);
+            batch.clear();
+          }
+        }
+      }
+    }
+
+    // waits for a first event, then for more events until the batch is full or the linger time has passed
+    private void collect(List<PaymentEvent> batch) throws InterruptedException {
+
+      var first = queue.poll(100, TimeUnit.MILLISECONDS);
+      if (first == null) {
+        return;
+      }
+      batch.add(first);
+
+      var deadline = System.nanoTime() + linger.toNanos();
+      while (batch.size() < batchSize) {
+        queue.drainTo(batch, batchSize - batch.size());
+        var remaining = deadline - System.nanoTime();
+        if (batch.size() >= batchSize || remaining <= 0) {
+          return;
+        }
+        var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+        if (next == null) {
+          return;
+        }
+        batch.add(next);
+      }
+    }
+  }
+}
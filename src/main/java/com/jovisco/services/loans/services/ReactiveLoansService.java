@@ -0,0 +1,47 @@
+package com.jovisco.services.loans.services;
+
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanBalanceDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveLoansService {
+
+  /**
+   * 
+   * @param createLoanDto
+   * @return completes when the loan is created
+   */
+  Mono<Void> createLoan(CreateLoanDto createLoanDto);
+
+  /**
+   * 
+   * @param mobileNumber
+   * @return loan details
+   */
+  Mono<LoanDto> fetchLoan(String mobileNumber);
+
+  /**
+   * 
+   * @param loanDto
+   * @return boolean indicating if update was successful
+   */
+  Mono<Boolean> updateLoan(LoanDto loanDto);
+
+  /**
+   * 
+   * @param mobileNumber
+   * @return boolean indicating if delete was successful
+   */
+  Mono<Boolean> deleteLoan(String mobileNumber);
+
+  /**
+   * 
+   * @param loanNumber
+   * @param paymentDto
+   * @return balance of the loan after the payment
+   */
+  Mono<LoanBalanceDto> postPayment(String loanNumber, PaymentDto paymentDto);
+}
@@ -0,0 +1,130 @@
+package com.jovisco.services.loans.services;
+
+import java.time.LocalDateTime;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Service;
+
+import com.jovisco.services.loans.cache.LoansCache;
+import com.jovisco.services.loans.cache.PortfolioCache;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanBalanceDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
+import com.jovisco.services.loans.exceptions.PaymentRejectedException;
+import com.jovisco.services.loans.exceptions.ResourceNotFoundException;
+import com.jovisco.services.loans.mappers.LoanMapper;
+import com.jovisco.services.loans.repositories.ReactiveLoansRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@Profile("reactive")
+@RequiredArgsConstructor
+@Service
+public class ReactiveLoansServiceImpl implements ReactiveLoansService {
+
+  private final ReactiveLoansRepository reactiveLoansRepository;
+
+  private final LoansService loansService;
+
+  private final LoansCache loansCache;
+
+  private final PortfolioCache portfolioCache;
+
+  private final CacheManager cacheManager;
+
+  private final AuditorAware<String> auditorAware;
+
+  @Override
+  public Mono<Void> createLoan(CreateLoanDto createLoanDto) {
+
+    // ids and loan numbers come from the generators of the jpa stack, which reserve blocks over jdbc - so the
+    // insert is delegated and kept off the event loop
+    return Mono.fromRunnable(() -> loansService.createLoan(createLoanDto))
+        .subscribeOn(Schedulers.boundedElastic())
+        .then();
+  }
+
+  // shares the cache with LoansServiceImpl#fetchLoan - the cached DTO must not be modified
+  @Override
+  public Mono<LoanDto> fetchLoan(String mobileNumber) {
+
+    var cache = cacheManager.getCache(LoansCache.LOANS_CACHE);
+    var cached = cache != null ? cache.get(mobileNumber, LoanDto.class) : null;
+    if (cached != null) {
+      return Mono.just(cached);
+    }
+
+    return reactiveLoansRepository
+        .findByMobileNumber(mobileNumber)
+        .map(LoanMapper::mapToLoanDto)
+        .doOnNext(loanDto -> {
+          if (cache != null) {
+            cache.put(mobileNumber, loanDto);
+          }
+        })
+        .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Loan", "mobile number", mobileNumber)));
+  }
+
+  @Override
+  public Mono<Boolean> updateLoan(LoanDto loanDto) {
+
+    // the previous mobile number is needed to evict its cache entry
+    return reactiveLoansRepository
+        .findByLoanNumber(loanDto.getLoanNumber())
+        .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Loan", "loan number", loanDto.getLoanNumber())))
+        .flatMap(loan -> reactiveLoansRepository
+            .updateByLoanNumber(
+                loanDto.getLoanNumber(),
+                loanDto.getMobileNumber(),
+                loanDto.getLoanType(),
+                loanDto.getTotalLoan(),
+                loanDto.getAmountPaid(),
+                loanDto.getOutstandingAmount(),
+                LocalDateTime.now(),
+                auditorAware.getCurrentAuditor().orElse(null))
+            .flatMap(updated -> evict(loan.getMobileNumber(), loanDto.getMobileNumber()).thenReturn(updated > 0)));
+  }
+
+  @Override
+  public Mono<Boolean> deleteLoan(String mobileNumber) {
+
+    return reactiveLoansRepository
+        .deleteByMobileNumber(mobileNumber)
+        .filter(deleted -> deleted > 0)
+        .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Loan", "mobile number", mobileNumber)))
+        .flatMap(deleted -> evict(mobileNumber).thenReturn(true));
+  }
+
+  @Override
+  public Mono<LoanBalanceDto> postPayment(String loanNumber, PaymentDto paymentDto) {
+
+    // without a transaction the balance is read after the update - it might already include later payments
+    var amount = paymentDto.getAmount();
+    return reactiveLoansRepository
+        .applyPayment(loanNumber, amount, LocalDateTime.now(), auditorAware.getCurrentAuditor().orElse(null))
+        .flatMap(updated -> reactiveLoansRepository
+            .findByLoanNumber(loanNumber)
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Loan", "loan number", loanNumber)))
+            .flatMap(loan -> updated > 0
+                ? evict(loan.getMobileNumber()).thenReturn(LoanMapper.mapToLoanBalanceDto(loan))
+                : Mono.error(new PaymentRejectedException(
+                    "Payment of " + amount + " exceeds outstanding amount of loan " + loanNumber))));
+  }
+
+  // evictions are published on the bus, which might block - the changed loans are not read, so the portfolio totals
+  // are recomputed
+  private Mono<Void> evict(String... mobileNumbers) {
+
+    return Mono.fromRunnable(() -> {
+      loansCache.evict(mobileNumbers);
+      portfolioCache.invalidate();
+    })
+        .subscribeOn(Schedulers.boundedElastic())
+        .then();
+  }
+}
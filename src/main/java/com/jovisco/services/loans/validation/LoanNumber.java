@@ -0,0 +1,27 @@
+package com.jovisco.services.loans.validation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+/**
+ * Loan number of 12 digits, like the pattern (^$|[0-9]{12}) - which accepts
+ * the empty string as well, so @NotEmpty has to reject it. Null is valid.
+ */
+@Documented
+@Constraint(validatedBy = LoanNumberValidator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.TYPE_USE })
+public @interface LoanNumber {
+
+  String message() default "Loan number must be 12 digits";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,34 @@
+package com.jovisco.services.loans.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+// scans the characters - same result as the pattern, without a matcher per call
+public class LoanNumberValidator implements ConstraintValidator<LoanNumber, CharSequence> {
+
+  static final int LENGTH = 12;
+
+  @Override
+  public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+    return value == null || isLoanNumber(value);
+  }
+
+  public static boolean isLoanNumber(CharSequence value) {
+
+    var length = value.length();
+    // the pattern accepts the empty string
+    if (length == 0) {
+      return true;
+    }
+    if (length != LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      var c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
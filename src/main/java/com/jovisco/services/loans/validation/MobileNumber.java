@@ -0,0 +1,27 @@
+package com.jovisco.services.loans.validation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+/**
+ * Mobile number in E.164 format - a plus, a non-zero digit and 3 to 14 more
+ * digits, like the pattern ^\+[1-9]{1}[0-9]{3,14}$. Null is valid.
+ */
+@Documented
+@Constraint(validatedBy = MobileNumberValidator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.TYPE_USE })
+public @interface MobileNumber {
+
+  String message() default "Mobile number must be valid";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+}
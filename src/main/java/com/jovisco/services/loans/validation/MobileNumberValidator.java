@@ -0,0 +1,35 @@
+package com.jovisco.services.loans.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+// scans the characters - same result as the pattern, without a matcher per call
+public class MobileNumberValidator implements ConstraintValidator<MobileNumber, CharSequence> {
+
+  static final int MIN_LENGTH = 5;
+  static final int MAX_LENGTH = 16;
+
+  @Override
+  public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+    return value == null || isMobileNumber(value);
+  }
+
+  public static boolean isMobileNumber(CharSequence value) {
+
+    var length = value.length();
+    if (length < MIN_LENGTH || length > MAX_LENGTH || value.charAt(0) != '+') {
+      return false;
+    }
+    var first = value.charAt(1);
+    if (first < '1' || first > '9') {
+      return false;
+    }
+    for (int i = 2; i < length; i++) {
+      var c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
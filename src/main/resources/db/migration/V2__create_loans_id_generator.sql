@@ -0,0 +1,7 @@
+create table loans_id_generator (
+  sequence_name varchar(100) not null primary key,
+  next_val bigint not null
+);
+
+insert into loans_id_generator (sequence_name, next_val)
+  select 'loans', coalesce(max(id), 0) + 1 from loans;
@@ -0,0 +1,5 @@
+-- lookups by mobile number and loan number must not scan the table; the unique index on
+-- mobile_number also detects duplicate loans on create. Existing duplicates have to be
+-- resolved manually before this migration can be applied
+create unique index ux_loans_mobile_number on loans (mobile_number);
+create unique index ux_loans_loan_number on loans (loan_number);
@@ -0,0 +1,2 @@
+-- blocks of loan numbers handed out to the service instances, see BlockLoanNumberGenerator
+insert into loans_id_generator (sequence_name, next_val) values ('loan_numbers', 0);
@@ -0,0 +1,2 @@
+-- loan listings filtered by loan type seek on the id within the loan type, see LoansRepository#findSummariesAfter
+create index ix_loans_loan_type_id on loans (loan_type, id);
@@ -0,0 +1,11 @@
+-- idempotency keys sent by clients, and the responses to replay for retries, see JdbcIdempotencyStore.
+-- response_status is null while the request that claimed the key is in progress
+create table idempotency_keys (
+  idempotency_key varchar(64) not null primary key,
+  request_hash varchar(64) not null,
+  response_status int default null,
+  response_location varchar(255) default null,
+  response_body varchar(4000) default null,
+  created_at timestamp not null
+);
+create index ix_idempotency_keys_created_at on idempotency_keys (created_at);
@@ -0,0 +1,2 @@
+-- incremented by every change of a loan - the entity tag of the loan, see LoanETags
+alter table loans add column version bigint not null default 0;
@@ -0,0 +1,79 @@
+package com.jovisco.services.loans.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.support.MessageBuilder;
+
+// the in-memory test binder stands in for the RabbitMQ broker of the Spring Cloud Bus
+@SpringBootTest(properties = {
+    "spring.cloud.bus.enabled=true",
+    "spring.cloud.stream.default-binder=integration",
+    "spring.cloud.stream.bindings.springCloudBusOutput.destination=" + LoansCacheTest.BUS_OUTPUT_DESTINATION
+})
+@Import(TestChannelBinderConfiguration.class)
+public class LoansCacheTest {
+
+  static final String BUS_DESTINATION = "springCloudBus";
+
+  // separate outbound destination, so that published events can be told apart from received ones
+  static final String BUS_OUTPUT_DESTINATION = "springCloudBusOutbound";
+
+  @Autowired
+  LoansCache loansCache;
+
+  @Autowired
+  CacheManager cacheManager;
+
+  @Autowired
+  InputDestination inputDestination;
+
+  @Autowired
+  OutputDestination outputDestination;
+
+  final String mobileNumber = "+122234567890";
+
+  @BeforeEach
+  void setUp() {
+    outputDestination.clear();
+    cacheManager.getCache(LoansCache.LOANS_CACHE).put(mobileNumber, "cached loan");
+  }
+
+  @Test
+  void testEvict() {
+
+    loansCache.evict(mobileNumber);
+
+    // check that the local copy is evicted, and the eviction is published on the bus for the other replicas
+    assertThat(cacheManager.getCache(LoansCache.LOANS_CACHE).get(mobileNumber)).isNull();
+
+    var message = outputDestination.receive(1000, BUS_OUTPUT_DESTINATION);
+    assertThat(message).isNotNull();
+    assertThat(new String(message.getPayload(), StandardCharsets.UTF_8))
+        .contains("LoanChangedEvent")
+        .contains("\"destinationService\":\"**\"")
+        .contains(mobileNumber);
+  }
+
+  @Test
+  void testEvictOnLoanChangedEventFromOtherReplica() {
+
+    // event as published by another replica
+    var payload = """
+        {"type": "LoanChangedEvent", "id": "1", "originService": "loans:other-replica", "destinationService": "**", "mobileNumbers": ["%s"]}
+        """.formatted(mobileNumber);
+    inputDestination.send(MessageBuilder.withPayload(payload.getBytes(StandardCharsets.UTF_8)).build(), BUS_DESTINATION);
+
+    assertThat(cacheManager.getCache(LoansCache.LOANS_CACHE).get(mobileNumber)).isNull();
+  }
+}
@@ -0,0 +1,190 @@
+package com.jovisco.services.loans.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.bus.event.PathDestinationFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
+import com.jovisco.services.loans.dtos.PortfolioSummaryDto;
+import com.jovisco.services.loans.events.LoanChangedEvent;
+import com.jovisco.services.loans.events.PaymentEvent;
+import com.jovisco.services.loans.mappers.LoanMapper;
+import com.jovisco.services.loans.repositories.LoansRepository;
+import com.jovisco.services.loans.services.LoansService;
+import com.jovisco.services.loans.services.PaymentIngestionService;
+
+// changes are committed, so that they reach the totals - the scheduled refresh is kept out of the way
+@SpringBootTest(properties = "loans.portfolio.in-memory.refresh-interval-ms=3600000")
+public class PortfolioCacheTest {
+
+  @Autowired
+  PortfolioCache portfolioCache;
+
+  @Autowired
+  LoansService loansService;
+
+  @Autowired
+  LoansRepository loansRepository;
+
+  @Autowired
+  TransactionTemplate transactionTemplate;
+
+  @Autowired
+  PaymentIngestionService paymentIngestionService;
+
+  final String mobileNumber = "+155534567890";
+
+  @AfterEach
+  void tearDown() {
+    loansRepository.findByMobileNumber(mobileNumber).ifPresent(loansRepository::delete);
+    // removed behind the back of the totals
+    portfolioCache.invalidate();
+    portfolioCache.refreshIfStale();
+  }
+
+  @Test
+  void testCreateAndPayment() {
+
+    var before = homeLoans(portfolioCache.getSummary());
+
+    // created loans and payments are added without recomputing the totals
+    loansService.createLoan(new CreateLoanDto(mobileNumber));
+    var loanNumber = loansService.fetchLoan(mobileNumber).getLoanNumber();
+    loansService.postPayment(loanNumber, new PaymentDto(1000));
+
+    var after = homeLoans(portfolioCache.getSummary());
+    assertThat(after.getCount()).isEqualTo(before.getCount() + 1);
+    assertThat(after.getTotalLoan()).isEqualTo(before.getTotalLoan() + LoansConstants.NEW_LOAN_LIMIT);
+    assertThat(after.getAmountPaid()).isEqualTo(before.getAmountPaid() + 1000);
+    assertThat(after.getOutstandingAmount()).isEqualTo(before.getOutstandingAmount() + LoansConstants.NEW_LOAN_LIMIT - 1000);
+
+    // ... and match the totals computed by the database
+    var computed = homeLoans(databaseSummary());
+    assertThat(after).usingRecursiveComparison().ignoringFields("averageUtilisation").isEqualTo(computed);
+    assertThat(after.getAverageUtilisation()).isCloseTo(computed.getAverageUtilisation(), within(1e-9));
+  }
+
+  @Test
+  void testRefreshBeforeCreateApplied() {
+
+    var before = homeLoans(portfolioCache.getSummary());
+
+    // the totals are recomputed once the loan is committed, but before it is added to them
+    transactionTemplate.executeWithoutResult(status -> {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          portfolioCache.onLoanChanged(new LoanChangedEvent(this, "another-replica",
+              new PathDestinationFactory().getDestination(null), List.of()));
+          portfolioCache.refreshIfStale();
+        }
+      });
+      loansService.createLoan(new CreateLoanDto(mobileNumber));
+    });
+
+    // the loan must not be counted twice
+    portfolioCache.refreshIfStale();
+    var after = homeLoans(portfolioCache.getSummary());
+    assertThat(after.getCount()).isEqualTo(before.getCount() + 1);
+    assertThat(after.getTotalLoan()).isEqualTo(before.getTotalLoan() + LoansConstants.NEW_LOAN_LIMIT);
+  }
+
+  @Test
+  void testIngestedPayments() {
+
+    loansService.createLoan(new CreateLoanDto(mobileNumber));
+    var loanNumber = loansService.fetchLoan(mobileNumber).getLoanNumber();
+    var before = homeLoans(portfolioCache.getSummary());
+
+    // payments written by the ingestion lanes are added as well
+    paymentIngestionService.submit(new PaymentEvent(loanNumber, 1000));
+    paymentIngestionService.submit(new PaymentEvent(loanNumber, 500));
+
+    await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(homeLoans(portfolioCache.getSummary())
+        .getAmountPaid()).isEqualTo(before.getAmountPaid() + 1500));
+    assertSameAsDatabase(portfolioCache.getSummary());
+  }
+
+  @Test
+  void testUpdate() {
+
+    loansService.createLoan(new CreateLoanDto(mobileNumber));
+    var loanDto = loansService.fetchLoan(mobileNumber);
+    var before = carLoans(portfolioCache.getSummary());
+
+    // the previous values are taken off the totals, the new ones added - without recomputing the totals
+    loansService.updateLoan(LoanDto.builder()
+        .mobileNumber(mobileNumber)
+        .loanNumber(loanDto.getLoanNumber())
+        .loanType("Car Loan")
+        .totalLoan(20000)
+        .amountPaid(5000)
+        .outstandingAmount(15000)
+        .build());
+
+    var after = portfolioCache.getSummary();
+    assertThat(carLoans(after).getCount()).isEqualTo(before.getCount() + 1);
+    assertThat(carLoans(after).getOutstandingAmount()).isEqualTo(before.getOutstandingAmount() + 15000);
+    assertSameAsDatabase(after);
+  }
+
+  @Test
+  void testDelete() {
+
+    loansService.createLoan(new CreateLoanDto(mobileNumber));
+    var before = homeLoans(portfolioCache.getSummary());
+
+    // the deleted loan is read before - its values are taken off the totals
+    loansService.deleteLoan(mobileNumber);
+
+    var after = portfolioCache.getSummary();
+    assertThat(homeLoans(after).getCount()).isEqualTo(before.getCount() - 1);
+    assertThat(homeLoans(after).getTotalLoan()).isEqualTo(before.getTotalLoan() - LoansConstants.NEW_LOAN_LIMIT);
+    assertSameAsDatabase(after);
+  }
+
+  private void assertSameAsDatabase(List<PortfolioSummaryDto> summary) {
+
+    var computed = databaseSummary();
+    assertThat(summary).usingRecursiveFieldByFieldElementComparatorIgnoringFields("averageUtilisation")
+        .isEqualTo(computed);
+    for (int i = 0; i < computed.size(); i++) {
+      assertThat(summary.get(i).getAverageUtilisation())
+          .isCloseTo(computed.get(i).getAverageUtilisation(), within(1e-9));
+    }
+  }
+
+  private List<PortfolioSummaryDto> databaseSummary() {
+    return loansRepository.sumByLoanType().stream().map(LoanMapper::mapToPortfolioSummaryDto).toList();
+  }
+
+  private PortfolioSummaryDto homeLoans(List<PortfolioSummaryDto> summary) {
+    return loanType(summary, LoansConstants.HOME_LOAN);
+  }
+
+  private PortfolioSummaryDto carLoans(List<PortfolioSummaryDto> summary) {
+    return loanType(summary, "Car Loan");
+  }
+
+  private PortfolioSummaryDto loanType(List<PortfolioSummaryDto> summary, String loanType) {
+    return summary.stream()
+        .filter(totals -> loanType.equals(totals.getLoanType()))
+        .findFirst()
+        .orElse(new PortfolioSummaryDto(loanType, 0, 0, 0, 0, 0.0));
+  }
+}
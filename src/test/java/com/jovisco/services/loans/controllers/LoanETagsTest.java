@@ -0,0 +1,34 @@
+package com.jovisco.services.loans.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.jovisco.services.loans.dtos.LoanDto;
+
+public class LoanETagsTest {
+
+  final String loanNumber = "123456789012";
+
+  @Test
+  void testOf() {
+
+    var loanDto = LoanDto.builder().loanNumber(loanNumber).version(7).build();
+
+    assertThat(LoanETags.of(loanDto)).isEqualTo("\"123456789012.7\"");
+  }
+
+  @Test
+  void testExpectedVersion() {
+
+    assertThat(LoanETags.expectedVersion("\"123456789012.7\"", loanNumber)).isEqualTo(7);
+    assertThat(LoanETags.expectedVersion("W/\"x\", \"123456789012.8\"", loanNumber)).isEqualTo(8);
+    assertThat(LoanETags.expectedVersion(" * ", loanNumber)).isNull();
+
+    // weak tags, tags of other loans and foreign tags never match
+    assertThat(LoanETags.expectedVersion("W/\"123456789012.7\"", loanNumber)).isEqualTo(LoanETags.NO_MATCH);
+    assertThat(LoanETags.expectedVersion("\"123456789013.7\"", loanNumber)).isEqualTo(LoanETags.NO_MATCH);
+    assertThat(LoanETags.expectedVersion("\"123456789012.\"", loanNumber)).isEqualTo(LoanETags.NO_MATCH);
+    assertThat(LoanETags.expectedVersion("\"123456789012.x\"", loanNumber)).isEqualTo(LoanETags.NO_MATCH);
+  }
+}
@@ -1,9 +1,12 @@
 package com.jovisco.services.loans.controllers;
 
+import java.util.UUID;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.Rollback;
@@ -12,9 +15,13 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.loans.constants.LoansConstants;
 import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
 import com.jovisco.services.loans.exceptions.LoanAlreadyExistsException;
 import com.jovisco.services.loans.exceptions.ResourceNotFoundException;
+import com.jovisco.services.loans.logging.CorrelationIdFilter;
 import com.jovisco.services.loans.repositories.LoansRepository;
 import com.jovisco.services.loans.services.LoansService;
 
@@ -22,6 +29,9 @@ import jakarta.transaction.Transactional;
 import jakarta.validation.ConstraintViolationException;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -53,7 +63,7 @@ public class LoansControllerIT {
 
   @BeforeEach
   void setUp() {
-    mockMvc = MockMvcBuilders.webAppContextSetup(wac).build();
+    mockMvc = MockMvcBuilders.webAppContextSetup(wac).addFilters(wac.getBean(CorrelationIdFilter.class)).build();
   }
 
   @Transactional
@@ -78,7 +88,7 @@ public class LoansControllerIT {
   void testCreateLoan() {
 
     var createDto = new CreateLoanDto("+122234567890");
-    var response = loansController.createLoan(createDto);
+    var response = loansController.createLoan(createDto, null);
 
     assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
     var location = response.getHeaders().getLocation();
@@ -101,11 +111,56 @@ public class LoansControllerIT {
 
     // first create a test loan
     var createDto = new CreateLoanDto("+122234567890");
-    loansController.createLoan(createDto);
+    loansController.createLoan(createDto, null);
 
     // ... then try to create the same loan again which should throw an exception
     assertThatExceptionOfType(LoanAlreadyExistsException.class)
-        .isThrownBy(() -> loansController.createLoan(createDto));
+        .isThrownBy(() -> loansController.createLoan(createDto, null));
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testCreateLoanWithIdempotencyKey() {
+
+    var createDto = new CreateLoanDto("+122234567890");
+    var idempotencyKey = UUID.randomUUID().toString();
+    var response = loansController.createLoan(createDto, idempotencyKey);
+
+    // the retry gets the stored response instead of a LoanAlreadyExistsException
+    var retried = loansController.createLoan(createDto, idempotencyKey);
+
+    assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    assertThat(retried.getHeaders().getLocation()).isEqualTo(response.getHeaders().getLocation());
+    assertThat(retried.getBody()).isEqualTo(response.getBody());
+    assertThat(retried.getHeaders().getFirst(LoansConstants.IDEMPOTENT_REPLAYED_HEADER)).isEqualTo("true");
+    assertThat(response.getHeaders().containsKey(LoansConstants.IDEMPOTENT_REPLAYED_HEADER)).isFalse();
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testCreateLoanMvcWithIdempotencyKey() throws Exception {
+
+    var idempotencyKey = UUID.randomUUID().toString();
+    loansController.createLoan(new CreateLoanDto("+122234567890"), idempotencyKey);
+
+    // the same key for another loan
+    mockMvc.perform(
+        post("/api/v1/loans")
+            .header(LoansConstants.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new CreateLoanDto("+122234567891"))))
+        .andExpect(status().isUnprocessableEntity());
+
+    mockMvc.perform(
+        post("/api/v1/loans")
+            .header(LoansConstants.IDEMPOTENCY_KEY_HEADER, "")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new CreateLoanDto("+122234567891"))))
+        .andExpect(status().isBadRequest());
   }
 
   @Transactional
@@ -118,7 +173,7 @@ public class LoansControllerIT {
 
     // ... should throw an exception
     assertThatExceptionOfType(ConstraintViolationException.class)
-        .isThrownBy(() -> loansController.createLoan(createDto))
+        .isThrownBy(() -> loansController.createLoan(createDto, null))
         .withMessageContaining("mobile");
   }
 
@@ -129,7 +184,7 @@ public class LoansControllerIT {
 
     // first create a test loan
     var createDto = new CreateLoanDto("+122234567890");
-    loansController.createLoan(createDto);
+    loansController.createLoan(createDto, null);
 
     mockMvc.perform(
         delete("/api/v1/loans/{mobileNumber}", createDto.getMobileNumber()))
@@ -144,7 +199,7 @@ public class LoansControllerIT {
 
     // first create a test loan
     var createDto = new CreateLoanDto("+122234567890");
-    var response = loansController.createLoan(createDto);
+    var response = loansController.createLoan(createDto, null);
 
     assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
     var location = response.getHeaders().getLocation();
@@ -167,7 +222,7 @@ public class LoansControllerIT {
 
     // first create a test loan
     var createDto = new CreateLoanDto("+122234567890");
-    loansController.createLoan(createDto);
+    loansController.createLoan(createDto, null);
 
     mockMvc.perform(
         get("/api/v1/loans/{mobileNumber}", createDto.getMobileNumber()))
@@ -175,6 +230,24 @@ public class LoansControllerIT {
         .andReturn();
   }
 
+  @Transactional
+  @Rollback
+  @Test
+  void testFetchLoanMvcWithCorrelationId() throws Exception {
+
+    // first create a test loan
+    var createDto = new CreateLoanDto("+122234567890");
+    loansController.createLoan(createDto, null);
+
+    // the correlation id is echoed in the response
+    mockMvc.perform(
+        get("/api/v1/loans/{mobileNumber}", createDto.getMobileNumber())
+            .header(LoansConstants.CORRELATION_ID_HEADER, correlationId))
+        .andExpect(status().isOk())
+        .andExpect(header().string(LoansConstants.CORRELATION_ID_HEADER, correlationId))
+        .andReturn();
+  }
+
   @Transactional
   @Rollback
   @Test
@@ -182,10 +255,10 @@ public class LoansControllerIT {
 
     // first create a test loan
     var createDto = new CreateLoanDto("+122234567890");
-    loansController.createLoan(createDto);
+    loansController.createLoan(createDto, null);
 
     // check that loan can be fetched
-    var response = loansController.fetchLoan(correlationId, createDto.getMobileNumber());
+    var response = loansController.fetchLoan(createDto.getMobileNumber());
     assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
     assertThat(response.getBody().getMobileNumber()).isEqualTo(createDto.getMobileNumber());
   }
@@ -195,7 +268,178 @@ public class LoansControllerIT {
 
     // check that an exception is thrown
     assertThatExceptionOfType(ResourceNotFoundException.class)
-        .isThrownBy(() -> loansController.fetchLoan(correlationId, "+999999999999"));
+        .isThrownBy(() -> loansController.fetchLoan("+999999999999"));
+  }
+
+  @Test
+  void testFetchLoanMvcWithETag() throws Exception {
+
+    // committed - the cached loan is only evicted once the payment is committed
+    var createDto = new CreateLoanDto("+122234567890");
+    loansController.createLoan(createDto, null);
+    try {
+      var loanNumber = loansService.fetchLoan(createDto.getMobileNumber()).getLoanNumber();
+      var eTag = mockMvc.perform(
+          get("/api/v1/loans/{mobileNumber}", createDto.getMobileNumber())
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"" + loanNumber + ".0\""))
+          .andExpect(jsonPath("$.version").doesNotExist())
+          .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+      // unchanged - served from the cache, without a body
+      mockMvc.perform(
+          get("/api/v1/loans/{mobileNumber}", createDto.getMobileNumber())
+              .header(HttpHeaders.IF_NONE_MATCH, eTag)
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isNotModified())
+          .andExpect(header().string(HttpHeaders.ETAG, eTag))
+          .andExpect(content().string(""));
+
+      // changed by a payment
+      loansService.postPayment(loanNumber, new PaymentDto(1000));
+      mockMvc.perform(
+          get("/api/v1/loans/{mobileNumber}", createDto.getMobileNumber())
+              .header(HttpHeaders.IF_NONE_MATCH, eTag)
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"" + loanNumber + ".1\""))
+          .andExpect(jsonPath("$.amountPaid").value(1000));
+    } finally {
+      loansService.deleteLoan(createDto.getMobileNumber());
+    }
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testUpdateLoanMvcWithIfMatch() throws Exception {
+
+    var createDto = new CreateLoanDto("+122234567890");
+    loansController.createLoan(createDto, null);
+    var response = loansController.fetchLoan(createDto.getMobileNumber());
+    var eTag = response.getHeaders().getETag();
+    var loanDto = LoanDto.builder()
+        .mobileNumber(createDto.getMobileNumber())
+        .loanNumber(response.getBody().getLoanNumber())
+        .loanType(LoansConstants.HOME_LOAN)
+        .totalLoan(33333)
+        .amountPaid(22222)
+        .outstandingAmount(11111)
+        .build();
+
+    // the version read is updated, and the tag of the new version returned
+    var updatedETag = mockMvc.perform(
+        put("/api/v1/loans")
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(loanDto)))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + loanDto.getLoanNumber() + ".1\""))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    // ... the version read before is outdated now
+    mockMvc.perform(
+        put("/api/v1/loans")
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(loanDto)))
+        .andExpect(status().isPreconditionFailed())
+        .andExpect(jsonPath("$.statusCode").value(LoansConstants.STATUS_412));
+
+    // ... so are tags of other loans
+    mockMvc.perform(
+        put("/api/v1/loans")
+            .header(HttpHeaders.IF_MATCH, "\"123456789012.1\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(loanDto)))
+        .andExpect(status().isPreconditionFailed());
+
+    mockMvc.perform(
+        put("/api/v1/loans")
+            .header(HttpHeaders.IF_MATCH, "W/\"stale\", " + updatedETag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(loanDto)))
+        .andExpect(status().isOk());
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testFetchPortfolioSummaryMvc() throws Exception {
+
+    mockMvc.perform(
+        get("/api/v1/loans/portfolio")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$").isArray())
+        .andReturn();
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testListLoansMvc() throws Exception {
+
+    // first create test loans
+    loansController.createLoan(new CreateLoanDto("+122234567890"), null);
+    loansController.createLoan(new CreateLoanDto("+122234567891"), null);
+
+    // first page by cursor, with a cursor to the next page
+    mockMvc.perform(
+        get("/api/v1/loans")
+            .param("loanType", "Home Loan")
+            .param("after", "0")
+            .param("size", "1")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.loans.length()").value(1))
+        .andExpect(jsonPath("$.nextCursor").isNumber())
+        .andExpect(jsonPath("$.totalElements").doesNotExist())
+        .andReturn();
+
+    // page sizes are limited
+    mockMvc.perform(
+        get("/api/v1/loans")
+            .param("size", "100000")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest())
+        .andReturn();
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testPostPaymentMvc() throws Exception {
+
+    // first create a test loan
+    var createDto = new CreateLoanDto("+122234567890");
+    loansController.createLoan(createDto, null);
+    var loanDto = loansController.fetchLoan(createDto.getMobileNumber()).getBody();
+
+    // the new balance is returned
+    mockMvc.perform(
+        post("/api/v1/loans/{loanNumber}/payments", loanDto.getLoanNumber())
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new PaymentDto(1000))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.amountPaid").value(loanDto.getAmountPaid() + 1000))
+        .andExpect(jsonPath("$.outstandingAmount").value(loanDto.getOutstandingAmount() - 1000))
+        .andReturn();
+
+    // payments must be positive
+    mockMvc.perform(
+        post("/api/v1/loans/{loanNumber}/payments", loanDto.getLoanNumber())
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new PaymentDto(0))))
+        .andExpect(status().isBadRequest())
+        .andReturn();
   }
 
   @Transactional
@@ -205,10 +449,10 @@ public class LoansControllerIT {
 
     // first create a test loan
     var createDto = new CreateLoanDto("+122234567890");
-    loansController.createLoan(createDto);
+    loansController.createLoan(createDto, null);
 
     // ... fetch it, and update fields
-    var loanDto = loansController.fetchLoan(correlationId, createDto.getMobileNumber()).getBody();
+    var loanDto = loansController.fetchLoan(createDto.getMobileNumber()).getBody();
     loanDto.setTotalLoan(33333);
     loanDto.setAmountPaid(22222);
     loanDto.setOutstandingAmount(11111);
@@ -229,20 +473,20 @@ public class LoansControllerIT {
 
     // first create a test loan
     var createDto = new CreateLoanDto("+122234567890");
-    loansController.createLoan(createDto);
+    loansController.createLoan(createDto, null);
 
     // ... fetch it, and modify fields
-    var loanDto = loansController.fetchLoan(correlationId, createDto.getMobileNumber()).getBody();
+    var loanDto = loansController.fetchLoan(createDto.getMobileNumber()).getBody();
     loanDto.setTotalLoan(33333);
     loanDto.setAmountPaid(22222);
     loanDto.setOutstandingAmount(11111);
 
     // finally update the loan with the modified values, and check that it worked
-    var response = loansController.updateLoan(loanDto);
+    var response = loansController.updateLoan(loanDto, null);
     assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 
     // check that fields have been updated with the correct values
-    var updated = loansController.fetchLoan(correlationId, loanDto.getMobileNumber()).getBody();
+    var updated = loansController.fetchLoan(loanDto.getMobileNumber()).getBody();
     assertThat(updated.getTotalLoan()).isEqualTo(loanDto.getTotalLoan());
     assertThat(updated.getAmountPaid()).isEqualTo(loanDto.getAmountPaid());
     assertThat(updated.getOutstandingAmount()).isEqualTo(loanDto.getOutstandingAmount());
@@ -255,17 +499,17 @@ public class LoansControllerIT {
 
     // first create a test loan
     var createDto = new CreateLoanDto("+122234567890");
-    loansController.createLoan(createDto);
+    loansController.createLoan(createDto, null);
 
     // ... fetch it, and modify fields
-    var loanDto = loansController.fetchLoan(correlationId, createDto.getMobileNumber()).getBody();
+    var loanDto = loansController.fetchLoan(createDto.getMobileNumber()).getBody();
     loanDto.setTotalLoan(-33333);
     loanDto.setAmountPaid(-22222);
     loanDto.setOutstandingAmount(-11111);
     loanDto.setLoanType("");
 
     assertThatExceptionOfType(ConstraintViolationException.class)
-        .isThrownBy(() -> loansController.updateLoan(loanDto))
+        .isThrownBy(() -> loansController.updateLoan(loanDto, null))
         .withMessageContainingAll("totalLoan", "amountPaid", "outstandingAmount", "loanType");
   }
 
@@ -276,16 +520,16 @@ public class LoansControllerIT {
 
     // first create a test loan
     var createDto = new CreateLoanDto("+122234567890");
-    loansController.createLoan(createDto);
+    loansController.createLoan(createDto, null);
 
     // ... fetch it, and modify fields
-    var loanDto = loansController.fetchLoan(correlationId, createDto.getMobileNumber()).getBody();
+    var loanDto = loansController.fetchLoan(createDto.getMobileNumber()).getBody();
     loanDto.setMobileNumber(null);
     loanDto.setTotalLoan(0);
     loanDto.setLoanType(null);
 
     assertThatExceptionOfType(ConstraintViolationException.class)
-        .isThrownBy(() -> loansController.updateLoan(loanDto))
+        .isThrownBy(() -> loansController.updateLoan(loanDto, null))
         .withMessageContainingAll("mobileNumber", "totalLoan", "loanType");
   }
 }
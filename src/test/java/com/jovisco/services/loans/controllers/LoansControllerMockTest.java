@@ -1,16 +1,22 @@
 package com.jovisco.services.loans.controllers;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.BatchItemResponseDto;
 import com.jovisco.services.loans.dtos.LoanDto;
 import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.idempotency.IdempotentRequests;
+import com.jovisco.services.loans.idempotency.InMemoryIdempotencyStore;
 import com.jovisco.services.loans.services.LoansService;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -25,6 +31,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(LoansController.class)
+@Import({ IdempotentRequests.class, InMemoryIdempotencyStore.class })
 public class LoansControllerMockTest {
 
   @Autowired
@@ -56,6 +63,26 @@ public class LoansControllerMockTest {
 
   }
 
+  @Test
+  void testCreateLoans() throws Exception {
+
+    var createDtos = List.of(new CreateLoanDto(mobileNumber), new CreateLoanDto("+122234567891"));
+    given(loansService.createLoans(any())).willReturn(List.of(
+        new BatchItemResponseDto(mobileNumber, LoansConstants.STATUS_201, LoansConstants.MESSAGE_201),
+        new BatchItemResponseDto("+122234567891", LoansConstants.STATUS_201, LoansConstants.MESSAGE_201)));
+
+    mockMvc.perform(
+        post("/api/v1/" + LoansController.LOANS_BATCH_PATH)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(createDtos))
+            .contentType(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2));
+
+    // verify that the loans service's createLoans method was invoked
+    verify(loansService, times(1)).createLoans(createDtos);
+  }
+
   @Test
   void testDeleteLoan() throws Exception {
 
@@ -0,0 +1,249 @@
+package com.jovisco.services.loans.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.ErrorResponseDto;
+import com.jovisco.services.loans.dtos.LoanBalanceDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
+import com.jovisco.services.loans.dtos.ResponseDto;
+import com.jovisco.services.loans.repositories.ReactiveLoansRepository;
+
+// the reactive stack commits each statement - test loans are removed after each test
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "spring.profiles.include=reactive")
+public class ReactiveLoansControllerIT {
+
+  @Autowired
+  WebTestClient webTestClient;
+
+  @Autowired
+  ReactiveLoansRepository reactiveLoansRepository;
+
+  final String correlationId = "test-correlation-id";
+
+  final String mobileNumber = "+122234567891";
+
+  final String changedMobileNumber = "+122234567892";
+
+  @AfterEach
+  void tearDown() {
+    reactiveLoansRepository.deleteByMobileNumber(mobileNumber).block();
+    reactiveLoansRepository.deleteByMobileNumber(changedMobileNumber).block();
+  }
+
+  @Test
+  void testCreateLoan() {
+
+    webTestClient.post().uri("/api/v1/loans")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new CreateLoanDto(mobileNumber))
+        .exchange()
+        .expectStatus().isCreated()
+        .expectHeader().valueEquals("Location", "/loans/" + mobileNumber)
+        .expectBody(ResponseDto.class)
+        .value(response -> assertThat(response.getStatusCode()).isEqualTo("201"));
+
+    assertThat(reactiveLoansRepository.findByMobileNumber(mobileNumber).block()).isNotNull();
+  }
+
+  @Test
+  void testCreateLoanWithAlreadyExistsError() {
+
+    createLoan();
+
+    webTestClient.post().uri("/api/v1/loans")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new CreateLoanDto(mobileNumber))
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody(ErrorResponseDto.class)
+        .value(error -> assertThat(error.getApiPath()).isEqualTo("uri=/api/v1/loans"));
+  }
+
+  @Test
+  void testCreateLoanWithValidationError() {
+
+    webTestClient.post().uri("/api/v1/loans")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new CreateLoanDto("INVALID"))
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.mobileNumber").isEqualTo("Mobile number must be valid");
+  }
+
+  @Test
+  void testFetchLoan() {
+
+    createLoan();
+
+    webTestClient.get().uri("/api/v1/loans/{mobileNumber}", mobileNumber)
+        .header("jovisco-banking-correlation-id", correlationId)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals("jovisco-banking-correlation-id", correlationId)
+        .expectBody(LoanDto.class)
+        .value(loanDto -> {
+          assertThat(loanDto.getMobileNumber()).isEqualTo(mobileNumber);
+          assertThat(loanDto.getLoanNumber()).hasSize(12);
+        });
+  }
+
+  @Test
+  void testFetchLoanWithETag() {
+
+    createLoan();
+
+    var eTag = webTestClient.get().uri("/api/v1/loans/{mobileNumber}", mobileNumber)
+        .exchange()
+        .expectStatus().isOk()
+        .returnResult(LoanDto.class)
+        .getResponseHeaders().getETag();
+    assertThat(eTag).endsWith(".0\"");
+
+    // unchanged - answered without a body
+    webTestClient.get().uri("/api/v1/loans/{mobileNumber}", mobileNumber)
+        .ifNoneMatch(eTag)
+        .exchange()
+        .expectStatus().isNotModified()
+        .expectBody().isEmpty();
+  }
+
+  @Test
+  void testFetchLoanWithoutCorrelationId() {
+
+    createLoan();
+
+    // a correlation id is created for requests without one
+    webTestClient.get().uri("/api/v1/loans/{mobileNumber}", mobileNumber)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().value("jovisco-banking-correlation-id", id -> assertThat(id).hasSize(32));
+  }
+
+  @Test
+  void testFetchLoanWithNotFound() {
+
+    // not a uri variable - those are encoded strictly, '+' would be sent as %2B
+    webTestClient.get().uri("/api/v1/loans/+999999999999")
+        .header("jovisco-banking-correlation-id", correlationId)
+        .exchange()
+        .expectStatus().isNotFound()
+        .expectBody(ErrorResponseDto.class)
+        .value(error -> assertThat(error.getApiPath()).isEqualTo("uri=/api/v1/loans/+999999999999"));
+  }
+
+  @Test
+  void testUpdateLoan() {
+
+    var loanDto = createLoan();
+    loanDto.setMobileNumber(changedMobileNumber);
+    loanDto.setAmountPaid(1000);
+
+    webTestClient.put().uri("/api/v1/loans")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(loanDto)
+        .exchange()
+        .expectStatus().isOk();
+
+    var loan = reactiveLoansRepository.findByLoanNumber(loanDto.getLoanNumber()).block();
+    assertThat(loan.getMobileNumber()).isEqualTo(changedMobileNumber);
+    assertThat(loan.getAmountPaid()).isEqualTo(1000);
+  }
+
+  @Test
+  void testUpdateLoanWithNotFound() {
+
+    var loanDto = createLoan();
+    loanDto.setLoanNumber("999999999999");
+
+    webTestClient.put().uri("/api/v1/loans")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(loanDto)
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  void testPostPayment() {
+
+    var loanDto = createLoan();
+
+    webTestClient.post().uri("/api/v1/loans/{loanNumber}/payments", loanDto.getLoanNumber())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new PaymentDto(1000))
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(LoanBalanceDto.class)
+        .value(balance -> {
+          assertThat(balance.getAmountPaid()).isEqualTo(loanDto.getAmountPaid() + 1000);
+          assertThat(balance.getOutstandingAmount()).isEqualTo(loanDto.getOutstandingAmount() - 1000);
+        });
+
+    // payments exceeding the outstanding amount are rejected
+    webTestClient.post().uri("/api/v1/loans/{loanNumber}/payments", loanDto.getLoanNumber())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new PaymentDto(loanDto.getOutstandingAmount()))
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  @Test
+  void testPostPaymentWithNotFound() {
+
+    webTestClient.post().uri("/api/v1/loans/{loanNumber}/payments", "999999999999")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new PaymentDto(1000))
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  void testDeleteLoan() {
+
+    createLoan();
+
+    webTestClient.delete().uri("/api/v1/loans/{mobileNumber}", mobileNumber)
+        .exchange()
+        .expectStatus().isOk();
+
+    // the loan is gone - also from the cache
+    webTestClient.get().uri("/api/v1/loans/{mobileNumber}", mobileNumber)
+        .header("jovisco-banking-correlation-id", correlationId)
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  void testDeleteLoanWithNotFound() {
+
+    webTestClient.delete().uri("/api/v1/loans/{mobileNumber}", "+999999999999")
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  private LoanDto createLoan() {
+
+    webTestClient.post().uri("/api/v1/loans")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new CreateLoanDto(mobileNumber))
+        .exchange()
+        .expectStatus().isCreated();
+
+    return webTestClient.get().uri("/api/v1/loans/{mobileNumber}", mobileNumber)
+        .header("jovisco-banking-correlation-id", correlationId)
+        .exchange()
+        .expectBody(LoanDto.class)
+        .returnResult()
+        .getResponseBody();
+  }
+}
@@ -0,0 +1,140 @@
+package com.jovisco.services.loans.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.jovisco.services.loans.cache.LoansCache;
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.metrics.LoansMetrics;
+import com.jovisco.services.loans.services.LoansService;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// a second in-memory database stands in for the replica - rows are copied by the test instead of replication
+@SpringBootTest(properties = {
+    "loans.datasource.replica.jdbc-url=jdbc:h2:mem:replicadb",
+    "loans.datasource.replica.username=sa",
+    "loans.datasource.replica.password=",
+    "loans.datasource.replica.max-lag=500ms"
+})
+public class ReplicaRoutingTest {
+
+  @Autowired
+  LoansService loansService;
+
+  @Autowired
+  CacheManager cacheManager;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  @Qualifier("replicaDataSource")
+  HikariDataSource replicaDataSource;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  JdbcTemplate replicaJdbcTemplate;
+
+  final String mobileNumber = "+166634567890";
+
+  final String loanNumber = "366634567890";
+
+  final String loanType = "Replicated Loan";
+
+  @BeforeEach
+  void setUp() {
+
+    Flyway.configure()
+        .dataSource(replicaDataSource)
+        .locations("classpath:db/migration")
+        .load()
+        .migrate();
+    replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+  }
+
+  @AfterEach
+  void tearDown() {
+
+    jdbcTemplate.update("delete from loans where mobile_number = ?", mobileNumber);
+    replicaJdbcTemplate.update("delete from loans where mobile_number = ?", mobileNumber);
+    cacheManager.getCache(LoansCache.LOANS_CACHE).evict(mobileNumber);
+  }
+
+  @Test
+  void testReadOnlyTransactionsUseReplica() {
+
+    // only present on the replica
+    insertLoan(replicaJdbcTemplate, 1000);
+
+    var page = loansService.listLoansAfter(loanType, null, null, 0, 10);
+    assertThat(page.getLoans()).extracting(LoanDto::getMobileNumber).containsExactly(mobileNumber);
+
+    // ... and not found by writes, which use the primary
+    assertThat(jdbcTemplate.queryForObject("select count(*) from loans where mobile_number = ?", Long.class,
+        mobileNumber)).isZero();
+  }
+
+  @Test
+  void testReadYourWritesAfterUpdate() {
+
+    insertLoan(jdbcTemplate, 0);
+    insertLoan(replicaJdbcTemplate, 0);
+    assertThat(loansService.fetchLoan(mobileNumber).getAmountPaid()).isZero();
+
+    // the replica lags behind - the loan is read from the primary nevertheless
+    var update = LoanDto.builder()
+        .mobileNumber(mobileNumber)
+        .loanNumber(loanNumber)
+        .loanType(loanType)
+        .totalLoan(LoansConstants.NEW_LOAN_LIMIT)
+        .amountPaid(1000)
+        .outstandingAmount(LoansConstants.NEW_LOAN_LIMIT - 1000)
+        .build();
+    assertThat(loansService.updateLoan(update)).isTrue();
+    assertThat(loansService.fetchLoan(mobileNumber).getAmountPaid()).isEqualTo(1000);
+
+    // once the lag has passed, the loan is read from the replica again - which is still behind here
+    await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+      cacheManager.getCache(LoansCache.LOANS_CACHE).evict(mobileNumber);
+      assertThat(loansService.fetchLoan(mobileNumber).getAmountPaid()).isZero();
+    });
+  }
+
+  @Test
+  void testPoolMetricsPerTarget() {
+
+    insertLoan(replicaJdbcTemplate, 0);
+    loansService.fetchLoan(mobileNumber);
+
+    for (var pool : new String[] { "primary", "replica" }) {
+      assertThat(meterRegistry.find("hikaricp.connections.active").tag("pool", pool).gauge()).isNotNull();
+      assertThat(meterRegistry.find(LoansMetrics.POOL_SATURATION).tag("pool", pool).gauge()).isNotNull();
+    }
+  }
+
+  private void insertLoan(JdbcTemplate target, int amountPaid) {
+
+    target.update("insert into loans (mobile_number, loan_number, loan_type, total_loan, amount_paid, "
+        + "outstanding_amount, created_at, created_by) values (?, ?, ?, ?, ?, ?, ?, ?)",
+        mobileNumber, loanNumber, loanType, LoansConstants.NEW_LOAN_LIMIT, amountPaid,
+        LoansConstants.NEW_LOAN_LIMIT - amountPaid, Timestamp.valueOf(LocalDateTime.now()), "test");
+  }
+}
@@ -0,0 +1,134 @@
+package com.jovisco.services.loans.generators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class BlockLoanNumberGeneratorTest {
+
+  @Autowired
+  LoanNumberGenerator loanNumberGenerator;
+
+  @Test
+  void testNextLoanNumber() {
+
+    var loanNumber = loanNumberGenerator.nextLoanNumber();
+
+    assertThat(loanNumber).hasSize(12).containsOnlyDigits().startsWith("2");
+    assertThat(isValidLuhn(loanNumber)).isTrue();
+  }
+
+  @Test
+  void testNextLoanNumberIsUniqueAcrossThreads() throws Exception {
+
+    var threads = 16;
+    var numbersPerThread = 5_000;
+    Set<String> loanNumbers = ConcurrentHashMap.newKeySet();
+
+    // start all threads at once to provoke contention on block switches
+    var start = new CountDownLatch(1);
+    var tasks = new ArrayList<Callable<Void>>();
+    for (int i = 0; i < threads; i++) {
+      tasks.add(() -> {
+        start.await();
+        for (int n = 0; n < numbersPerThread; n++) {
+          loanNumbers.add(loanNumberGenerator.nextLoanNumber());
+        }
+        return null;
+      });
+    }
+
+    try (var executor = Executors.newFixedThreadPool(threads)) {
+      var futures = tasks.stream().map(executor::submit).toList();
+      start.countDown();
+      for (var future : futures) {
+        future.get();
+      }
+    }
+
+    assertThat(loanNumbers).hasSize(threads * numbersPerThread);
+    assertThat(loanNumbers).allMatch(loanNumber -> loanNumber.length() == 12 && isValidLuhn(loanNumber));
+  }
+
+  @Test
+  void testNextLoanNumberOnVirtualThreads() throws Exception {
+
+    // small blocks and a slow block reservation, like a database round trip, to make many threads wait for it
+    var blocks = new AtomicLong();
+    var generator = new BlockLoanNumberGenerator(() -> {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return blocks.incrementAndGet();
+    }, 10);
+
+    var threads = 10_000;
+    Set<String> loanNumbers = ConcurrentHashMap.newKeySet();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < threads; i++) {
+        executor.submit(() -> loanNumbers.add(generator.nextLoanNumber()));
+      }
+    }
+
+    assertThat(loanNumbers).hasSize(threads);
+    assertThat(blocks.get()).isEqualTo(threads / 10);
+  }
+
+  @Test
+  void testNextLoanNumberWithBlocks() {
+
+    // two instances share the block sequence - like two service instances share the database
+    var blocks = new AtomicLong();
+    var first = new BlockLoanNumberGenerator(blocks::incrementAndGet, 2);
+    var second = new BlockLoanNumberGenerator(blocks::incrementAndGet, 2);
+
+    assertThat(first.nextLoanNumber()).startsWith("20000000000");
+    assertThat(second.nextLoanNumber()).startsWith("20000000002");
+    assertThat(first.nextLoanNumber()).startsWith("20000000001");
+    assertThat(first.nextLoanNumber()).startsWith("20000000004");
+  }
+
+  @Test
+  void testNextLoanNumberWhenExhausted() {
+
+    var lastBlock = (BlockLoanNumberGenerator.LAST_NUMBER - BlockLoanNumberGenerator.FIRST_NUMBER + 1) / 1000;
+    var generator = new BlockLoanNumberGenerator(() -> lastBlock + 1, 1000);
+
+    assertThatIllegalStateException().isThrownBy(generator::nextLoanNumber);
+  }
+
+  @Test
+  void testCheckDigit() {
+
+    // well known Luhn examples
+    assertThat(BlockLoanNumberGenerator.checkDigit(7992739871L)).isEqualTo(3);
+    assertThat(BlockLoanNumberGenerator.checkDigit(20000000000L)).isEqualTo(6);
+  }
+
+  private boolean isValidLuhn(String number) {
+
+    var sum = 0;
+    for (int i = 0; i < number.length(); i++) {
+      var digit = number.charAt(number.length() - 1 - i) - '0';
+      if (i % 2 == 1) {
+        digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+      }
+      sum += digit;
+    }
+    return sum % 10 == 0;
+  }
+}
@@ -0,0 +1,151 @@
+package com.jovisco.services.loans.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.ResponseDto;
+import com.jovisco.services.loans.exceptions.IdempotencyKeyException;
+
+@SpringBootTest
+public class IdempotentRequestsTest {
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  final CreateLoanDto createDto = new CreateLoanDto("+122234567890");
+
+  @Test
+  void testConcurrentDuplicatesInMemory() throws Exception {
+    testConcurrentDuplicates(new InMemoryIdempotencyStore(Duration.ofHours(24), 1000));
+  }
+
+  @Test
+  void testConcurrentDuplicatesJdbc() throws Exception {
+    testConcurrentDuplicates(new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(24), Duration.ofSeconds(30)));
+  }
+
+  @Test
+  void testKeyReusedForDifferentRequest() {
+
+    var idempotentRequests = new IdempotentRequests(
+        new InMemoryIdempotencyStore(Duration.ofHours(24), 1000), objectMapper);
+    var key = UUID.randomUUID().toString();
+
+    idempotentRequests.process(key, "createLoan", createDto, ResponseDto.class, this::created);
+
+    assertThatExceptionOfType(IdempotencyKeyException.class)
+        .isThrownBy(() -> idempotentRequests.process(key, "createLoan", new CreateLoanDto("+122234567891"),
+            ResponseDto.class, this::created))
+        .satisfies(e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+  }
+
+  @Test
+  void testKeyReleasedAfterFailure() {
+
+    var idempotentRequests = new IdempotentRequests(
+        new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(24), Duration.ofSeconds(30)), objectMapper);
+    var key = UUID.randomUUID().toString();
+
+    assertThatExceptionOfType(IllegalStateException.class)
+        .isThrownBy(() -> idempotentRequests.process(key, "createLoan", createDto, ResponseDto.class, () -> {
+          throw new IllegalStateException("failed");
+        }));
+
+    // the retry is processed again
+    var response = idempotentRequests.process(key, "createLoan", createDto, ResponseDto.class, this::created);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    assertThat(response.getHeaders().containsKey(LoansConstants.IDEMPOTENT_REPLAYED_HEADER)).isFalse();
+  }
+
+  private void testConcurrentDuplicates(IdempotencyStore idempotencyStore) throws Exception {
+
+    var idempotentRequests = new IdempotentRequests(idempotencyStore, objectMapper);
+    var key = UUID.randomUUID().toString();
+    var threads = 16;
+    var processed = new AtomicInteger();
+    var conflicts = new AtomicInteger();
+
+    // all duplicates are submitted at once - the first one stays in progress until all others have been answered
+    var start = new CountDownLatch(1);
+    var duplicatesAnswered = new CountDownLatch(threads - 1);
+    var tasks = new ArrayList<Callable<ResponseEntity<ResponseDto>>>();
+    for (int i = 0; i < threads; i++) {
+      tasks.add(() -> {
+        start.await();
+        var processedHere = new AtomicBoolean();
+        try {
+          return idempotentRequests.process(key, "createLoan", createDto, ResponseDto.class, () -> {
+            processedHere.set(true);
+            processed.incrementAndGet();
+            try {
+              assertThat(duplicatesAnswered.await(10, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return created();
+          });
+        } finally {
+          if (!processedHere.get()) {
+            duplicatesAnswered.countDown();
+          }
+        }
+      });
+    }
+
+    try (var executor = Executors.newFixedThreadPool(threads)) {
+      var futures = tasks.stream().map(executor::submit).toList();
+      start.countDown();
+      for (var future : futures) {
+        try {
+          assertThat(future.get().getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        } catch (ExecutionException e) {
+          assertThat(e.getCause()).isInstanceOf(IdempotencyKeyException.class);
+          assertThat(((IdempotencyKeyException) e.getCause()).getStatus()).isEqualTo(HttpStatus.CONFLICT);
+          conflicts.incrementAndGet();
+        }
+      }
+    }
+
+    assertThat(processed).hasValue(1);
+    assertThat(conflicts).hasValue(threads - 1);
+
+    // once completed, retries get the stored response
+    var replayed = idempotentRequests.process(key, "createLoan", createDto, ResponseDto.class, this::created);
+    assertThat(processed).hasValue(1);
+    assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    assertThat(replayed.getHeaders().getLocation()).hasToString("/api/v1/loans/+122234567890");
+    assertThat(replayed.getHeaders().getFirst(LoansConstants.IDEMPOTENT_REPLAYED_HEADER)).isEqualTo("true");
+    assertThat(replayed.getBody()).isEqualTo(new ResponseDto(LoansConstants.STATUS_201, LoansConstants.MESSAGE_201));
+  }
+
+  private ResponseEntity<ResponseDto> created() {
+    return ResponseEntity
+        .status(HttpStatus.CREATED)
+        .header("Location", "/api/v1/loans/+122234567890")
+        .body(new ResponseDto(LoansConstants.STATUS_201, LoansConstants.MESSAGE_201));
+  }
+}
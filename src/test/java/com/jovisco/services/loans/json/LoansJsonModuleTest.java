@@ -0,0 +1,179 @@
+package com.jovisco.services.loans.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.ErrorResponseDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+import com.jovisco.services.loans.dtos.ResponseDto;
+
+// the hand-written serializers must produce exactly the json of the default object mapper
+public class LoansJsonModuleTest {
+
+  // dates as iso strings, like the object mapper of spring boot
+  final ObjectMapper defaultMapper = Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .build();
+
+  final ObjectMapper fastMapper = Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .modulesToInstall(new LoansJsonModule())
+      .build();
+
+  final Random random = new Random(4711);
+
+  @Test
+  void testLoanDtoSameAsDefault() throws Exception {
+
+    for (int i = 0; i < 1000; i++) {
+      var loanDto = LoanDto.builder()
+          .mobileNumber(randomString())
+          .loanNumber(randomString())
+          .loanType(randomString())
+          .totalLoan(random.nextInt())
+          .amountPaid(random.nextInt())
+          .outstandingAmount(random.nextInt())
+          .version(random.nextLong())
+          .build();
+
+      var json = defaultMapper.writeValueAsString(loanDto);
+      assertThat(fastMapper.writeValueAsString(loanDto)).isEqualTo(json);
+
+      // the version is not part of the json
+      loanDto.setVersion(0);
+      assertThat(fastMapper.readValue(json, LoanDto.class))
+          .isEqualTo(defaultMapper.readValue(json, LoanDto.class))
+          .isEqualTo(loanDto);
+    }
+  }
+
+  @Test
+  void testLoanDtoReadLikeDefault() throws Exception {
+
+    var inputs = new String[] {
+        "{}",
+        "{\"mobileNumber\":null,\"totalLoan\":null}",
+        "{\"mobileNumber\":\"+122234567890\",\"unknown\":{\"nested\":[1,2]}}",
+        "{\"loanNumber\":123456789012,\"totalLoan\":\"1000\",\"amountPaid\":12.0}",
+        "{\"loanType\":true,\"outstandingAmount\":-5}"
+    };
+    for (var input : inputs) {
+      assertThat(fastMapper.readValue(input, LoanDto.class))
+          .as(input)
+          .isEqualTo(defaultMapper.readValue(input, LoanDto.class));
+    }
+  }
+
+  @Test
+  void testResponseDtoSameAsDefault() throws Exception {
+
+    for (int i = 0; i < 1000; i++) {
+      var responseDto = new ResponseDto(randomString(), randomString());
+      assertThat(fastMapper.writeValueAsString(responseDto)).isEqualTo(defaultMapper.writeValueAsString(responseDto));
+    }
+  }
+
+  @Test
+  void testErrorResponseDtoSameAsDefault() throws Exception {
+
+    var statuses = HttpStatus.values();
+    for (int i = 0; i < 1000; i++) {
+      var errorResponseDto = ErrorResponseDto.builder()
+          .apiPath(randomString())
+          .errorCode(random.nextInt(10) == 0 ? null : statuses[random.nextInt(statuses.length)])
+          .errorMessage(randomString())
+          .errorTime(randomDateTime())
+          .build();
+      assertThat(fastMapper.writeValueAsString(errorResponseDto))
+          .isEqualTo(defaultMapper.writeValueAsString(errorResponseDto));
+    }
+  }
+
+  @Test
+  void testErrorTimeAsTimestamps() throws Exception {
+
+    var timestampsMapper = Jackson2ObjectMapperBuilder.json().build();
+    var fastTimestampsMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new LoansJsonModule()).build();
+
+    for (int i = 0; i < 100; i++) {
+      var errorResponseDto = ErrorResponseDto.builder()
+          .apiPath(randomString())
+          .errorCode(HttpStatus.NOT_FOUND)
+          .errorTime(randomDateTime())
+          .build();
+      assertThat(fastTimestampsMapper.writeValueAsString(errorResponseDto))
+          .isEqualTo(timestampsMapper.writeValueAsString(errorResponseDto));
+    }
+  }
+
+  @Test
+  void testConstantResponsesPreEncoded() throws Exception {
+
+    var converter = new PreEncodedResponseConverter(fastMapper);
+
+    for (var responseDto : new ResponseDto[] {
+        new ResponseDto(LoansConstants.STATUS_201, LoansConstants.MESSAGE_201),
+        new ResponseDto(LoansConstants.STATUS_200, "not a constant response") }) {
+
+      var outputMessage = new MockHttpOutputMessage();
+      converter.write(responseDto, MediaType.APPLICATION_JSON, outputMessage);
+
+      var expected = defaultMapper.writeValueAsString(responseDto);
+      assertThat(outputMessage.getBodyAsString()).isEqualTo(expected);
+      assertThat(outputMessage.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+
+      // and read back like any other json
+      var inputMessage = new MockHttpInputMessage(outputMessage.getBodyAsBytes());
+      assertThat(converter.read(ResponseDto.class, inputMessage)).isEqualTo(responseDto);
+    }
+  }
+
+  // nulls, escapes, control characters, non-ascii and surrogate pairs
+  private String randomString() {
+
+    if (random.nextInt(10) == 0) {
+      return null;
+    }
+    var length = random.nextInt(20);
+    var builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      switch (random.nextInt(6)) {
+        case 0 -> builder.append((char) random.nextInt(0x20));
+        case 1 -> builder.append("\"\\/".charAt(random.nextInt(3)));
+        case 2 -> builder.append((char) (0x80 + random.nextInt(0x700)));
+        case 3 -> builder.appendCodePoint(0x1F600 + random.nextInt(0x40));
+        default -> builder.append((char) (0x20 + random.nextInt(0x5F)));
+      }
+    }
+    return builder.toString();
+  }
+
+  // whole seconds, milli, micro and nano fractions, and years beyond four digits
+  private LocalDateTime randomDateTime() {
+
+    if (random.nextInt(10) == 0) {
+      return null;
+    }
+    var nano = switch (random.nextInt(4)) {
+      case 0 -> 0;
+      case 1 -> random.nextInt(1000) * 1_000_000;
+      case 2 -> random.nextInt(1_000_000) * 1000;
+      default -> random.nextInt(1_000_000_000);
+    };
+    var year = random.nextInt(20) == 0 ? 10000 + random.nextInt(100000) : random.nextInt(10000);
+    return LocalDateTime.of(year, 1 + random.nextInt(12), 1 + random.nextInt(28),
+        random.nextInt(24), random.nextInt(60), random.nextInt(60), nano);
+  }
+}
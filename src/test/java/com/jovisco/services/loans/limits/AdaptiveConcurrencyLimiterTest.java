@@ -0,0 +1,94 @@
+package com.jovisco.services.loans.limits;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+  final long fast = TimeUnit.MILLISECONDS.toNanos(10);
+
+  final long slow = TimeUnit.MILLISECONDS.toNanos(100);
+
+  @Test
+  void testRejectsBeyondLimit() {
+
+    var limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isFalse();
+    assertThat(limiter.getInFlight()).isEqualTo(2);
+
+    limiter.release(fast, false);
+    assertThat(limiter.tryAcquire()).isTrue();
+  }
+
+  @Test
+  void testLimitGrowsWhileLatencyIsSteady() {
+
+    var limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+    for (int i = 0; i < 500; i++) {
+      limiter.onSample(fast, limiter.getLimit(), false);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(100);
+  }
+
+  @Test
+  void testLimitShrinksWhenLatencyRises() {
+
+    var limiter = new AdaptiveConcurrencyLimiter(10, 2, 100);
+    for (int i = 0; i < 500; i++) {
+      limiter.onSample(fast, limiter.getLimit(), false);
+    }
+
+    // calls queue up - the latency rises tenfold
+    for (int i = 0; i < 50; i++) {
+      limiter.onSample(slow, limiter.getLimit(), false);
+    }
+    assertThat(limiter.getLimit()).isLessThan(50).isGreaterThanOrEqualTo(2);
+
+    // ... and recovers once the latency is back to normal
+    var shrunk = limiter.getLimit();
+    for (int i = 0; i < 200; i++) {
+      limiter.onSample(fast, limiter.getLimit(), false);
+    }
+    assertThat(limiter.getLimit()).isGreaterThan(shrunk);
+  }
+
+  @Test
+  void testUnusedLimitIsNotRaised() {
+
+    var limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+    for (int i = 0; i < 500; i++) {
+      limiter.onSample(fast, 1, false);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(10);
+  }
+
+  @Test
+  void testDroppedCallsCutLimit() {
+
+    var limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+    for (int i = 0; i < 50; i++) {
+      limiter.onSample(fast, 1, true);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(1);
+  }
+
+  @Test
+  void testInvalidLimits() {
+
+    assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimiter(0, 0, 10));
+    assertThatIllegalArgumentException().isThrownBy(() -> new AdaptiveConcurrencyLimiter(20, 1, 10));
+  }
+}
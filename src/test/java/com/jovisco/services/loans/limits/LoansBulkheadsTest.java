@@ -0,0 +1,138 @@
+package com.jovisco.services.loans.limits;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.events.PaymentEvent;
+import com.jovisco.services.loans.exceptions.ConcurrencyLimitExceededException;
+import com.jovisco.services.loans.repositories.LoansRepository;
+import com.jovisco.services.loans.services.LoansService;
+import com.jovisco.services.loans.services.PaymentIngestionService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// single permits - the test takes them to fill the bulkheads
+@SpringBootTest(properties = {
+    "resilience4j.bulkhead.instances.loansMutate.maxConcurrentCalls=1",
+    "resilience4j.bulkhead.instances.loansMutate.maxWaitDuration=0",
+    "resilience4j.bulkhead.instances.loansAdmin.maxConcurrentCalls=1",
+    "resilience4j.bulkhead.instances.loansAdmin.maxWaitDuration=10s",
+    "resilience4j.bulkhead.instances.loansIngest.maxConcurrentCalls=1",
+    "resilience4j.bulkhead.instances.loansIngest.maxWaitDuration=100"
+})
+public class LoansBulkheadsTest {
+
+  @Autowired
+  LoansBulkheads loansBulkheads;
+
+  @Autowired
+  LoansService loansService;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  PaymentIngestionService paymentIngestionService;
+
+  @Autowired
+  LoansRepository loansRepository;
+
+  final String mobileNumber = "+188834567890";
+  final String batchMobileNumber = "+188834567892";
+
+  @BeforeEach
+  void setUp() {
+    loansService.createLoan(new CreateLoanDto(mobileNumber));
+  }
+
+  @AfterEach
+  void tearDown() {
+    loansService.deleteLoan(mobileNumber);
+  }
+
+  @Test
+  void testFetchesIsolatedFromMutations() {
+
+    assertThat(loansBulkheads.mutate().tryAcquirePermission()).isTrue();
+    try {
+      assertThatExceptionOfType(ConcurrencyLimitExceededException.class)
+          .isThrownBy(() -> loansService.createLoan(new CreateLoanDto("+188834567891")))
+          .withMessageContaining(LoansBulkheads.MUTATE);
+
+      // fetches and admin operations have bulkheads of their own
+      assertThat(loansService.fetchLoan(mobileNumber).getMobileNumber()).isEqualTo(mobileNumber);
+      assertThat(loansService.fetchPortfolioSummary()).isNotEmpty();
+    } finally {
+      loansBulkheads.mutate().onComplete();
+    }
+  }
+
+  @Test
+  void testQueueDepth() {
+
+    var queueDepth = meterRegistry.get(LoansBulkheads.QUEUE_DEPTH).tag("name", LoansBulkheads.ADMIN).gauge();
+
+    assertThat(loansBulkheads.admin().tryAcquirePermission()).isTrue();
+    CompletableFuture<?> batch;
+    try {
+      batch = CompletableFuture
+          .supplyAsync(() -> loansService.createLoans(List.of(new CreateLoanDto(batchMobileNumber))));
+      await().atMost(Duration.ofSeconds(5)).until(() -> queueDepth.value() == 1.0);
+
+      // the portfolio summary is a fetch, it never waits for admin operations
+      assertThat(loansService.fetchPortfolioSummary()).isNotEmpty();
+    } finally {
+      loansBulkheads.admin().onComplete();
+    }
+
+    assertThat(batch).succeedsWithin(Duration.ofSeconds(5));
+    assertThat(queueDepth.value()).isZero();
+    loansService.deleteLoan(batchMobileNumber);
+  }
+
+  @Test
+  void testIngestionWaitsForPermit() {
+
+    var queueDepth = meterRegistry.get(LoansBulkheads.QUEUE_DEPTH).tag("name", LoansBulkheads.INGEST).gauge();
+    var loanNumber = loansService.fetchLoan(mobileNumber).getLoanNumber();
+
+    // a batch of payments waits while the ingest bulkhead is full - fetches are served meanwhile
+    assertThat(loansBulkheads.ingest().tryAcquirePermission()).isTrue();
+    try {
+      assertThat(paymentIngestionService.submit(new PaymentEvent(loanNumber, 1000))).isTrue();
+      await().atMost(Duration.ofSeconds(5)).until(() -> queueDepth.value() == 1.0);
+      assertThat(loansService.fetchLoan(mobileNumber).getAmountPaid()).isZero();
+    } finally {
+      loansBulkheads.ingest().onComplete();
+    }
+
+    // ... and is written, not refused, once a permit is available
+    await().atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(loansRepository.findByMobileNumber(mobileNumber))
+            .hasValueSatisfying(loan -> assertThat(loan.getAmountPaid()).isEqualTo(1000)));
+    assertThat(queueDepth.value()).isZero();
+  }
+
+  @Test
+  void testBulkheadMetrics() {
+
+    for (var name : new String[] { LoansBulkheads.FETCH, LoansBulkheads.MUTATE, LoansBulkheads.ADMIN,
+        LoansBulkheads.INGEST }) {
+      assertThat(meterRegistry.find("resilience4j.bulkhead.available.concurrent.calls").tag("name", name).gauge())
+          .isNotNull();
+      assertThat(meterRegistry.find(LoansBulkheads.QUEUE_DEPTH).tag("name", name).gauge()).isNotNull();
+    }
+  }
+}
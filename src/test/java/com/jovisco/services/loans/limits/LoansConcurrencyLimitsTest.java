@@ -0,0 +1,100 @@
+package com.jovisco.services.loans.limits;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.services.LoansService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// a single write at a time - the test takes it to saturate writes
+@SpringBootTest(properties = {
+    "loans.concurrency.write.initial-limit=1",
+    "loans.concurrency.write.min-limit=1",
+    "loans.concurrency.write.max-limit=1",
+    "loans.concurrency.retry-after=2s"
+})
+public class LoansConcurrencyLimitsTest {
+
+  @Autowired
+  LoansConcurrencyLimits loansConcurrencyLimits;
+
+  @Autowired
+  LoansService loansService;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  WebApplicationContext wac;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  MockMvc mockMvc;
+
+  final String mobileNumber = "+177734567890";
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(wac).build();
+    loansService.createLoan(new CreateLoanDto(mobileNumber));
+  }
+
+  @AfterEach
+  void tearDown() {
+    loansService.deleteLoan(mobileNumber);
+  }
+
+  @Test
+  void testWritesRejectedBeyondLimit() throws Exception {
+
+    var rejections = rejections(LoansConcurrencyLimits.WRITE);
+    assertThat(loansConcurrencyLimits.writes().tryAcquire()).isTrue();
+    try {
+      mockMvc.perform(
+          post("/api/v1/loans")
+              .contentType(MediaType.APPLICATION_JSON)
+              .accept(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(new CreateLoanDto("+177734567891"))))
+          .andExpect(status().isServiceUnavailable())
+          .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+          .andExpect(jsonPath("$.errorCode").value("SERVICE_UNAVAILABLE"));
+
+      // reads have a limit of their own
+      mockMvc.perform(
+          get("/api/v1/loans/{mobileNumber}", mobileNumber)
+              .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk());
+    } finally {
+      loansConcurrencyLimits.writes().release(0, false);
+    }
+
+    assertThat(rejections(LoansConcurrencyLimits.WRITE)).isEqualTo(rejections + 1);
+    assertThat(meterRegistry.get(LoansConcurrencyLimits.LIMIT).tag("kind", LoansConcurrencyLimits.WRITE).gauge()
+        .value()).isEqualTo(1.0);
+    assertThat(meterRegistry.get(LoansConcurrencyLimits.IN_FLIGHT).tag("kind", LoansConcurrencyLimits.READ).gauge()
+        .value()).isZero();
+  }
+
+  private double rejections(String kind) {
+    return meterRegistry.get(LoansConcurrencyLimits.REJECTIONS).tag("kind", kind).counter().count();
+  }
+}
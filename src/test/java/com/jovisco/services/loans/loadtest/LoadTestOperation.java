@@ -0,0 +1,5 @@
+package com.jovisco.services.loans.loadtest;
+
+enum LoadTestOperation {
+  CREATE, FETCH, UPDATE, DELETE
+}
@@ -0,0 +1,76 @@
+package com.jovisco.services.loans.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of the load generator - given as --loadtest.name=value, all other
+ * arguments are passed on to the embedded application
+ */
+record LoadTestOptions(
+    String baseUrl,
+    int rate,
+    int clients,
+    Duration warmup,
+    Duration duration,
+    int loans,
+    Map<LoadTestOperation, Integer> mix,
+    List<String> applicationArgs) {
+
+  static final String PREFIX = "--loadtest.";
+
+  static LoadTestOptions parse(String[] args) {
+
+    String baseUrl = null;
+    var rate = 200;
+    var clients = 0;
+    var warmup = Duration.ofSeconds(10);
+    var duration = Duration.ofSeconds(60);
+    var loans = 1_000;
+    var mix = parseMix("create:10,fetch:70,update:15,delete:5");
+    var applicationArgs = new ArrayList<String>();
+
+    for (var arg : args) {
+      if (!arg.startsWith(PREFIX)) {
+        applicationArgs.add(arg);
+        continue;
+      }
+
+      var option = arg.substring(PREFIX.length()).split("=", 2);
+      if (option.length != 2) {
+        throw new IllegalArgumentException("Option without value: " + arg);
+      }
+      switch (option[0]) {
+        case "base-url" -> baseUrl = option[1];
+        case "rate" -> rate = Integer.parseInt(option[1]);
+        case "clients" -> clients = Integer.parseInt(option[1]);
+        case "warmup" -> warmup = Duration.parse("PT" + option[1]);
+        case "duration" -> duration = Duration.parse("PT" + option[1]);
+        case "loans" -> loans = Integer.parseInt(option[1]);
+        case "mix" -> mix = parseMix(option[1]);
+        default -> throw new IllegalArgumentException("Unknown option: " + arg);
+      }
+    }
+
+    return new LoadTestOptions(baseUrl, rate, clients, warmup, duration, loans, mix, applicationArgs);
+  }
+
+  /**
+   * 
+   * @param mix weights per operation, e.g. create:10,fetch:70,update:15,delete:5
+   * @return weight per operation
+   */
+  private static Map<LoadTestOperation, Integer> parseMix(String mix) {
+
+    Map<LoadTestOperation, Integer> weights = new EnumMap<>(LoadTestOperation.class);
+    for (var entry : mix.split(",")) {
+      var weight = entry.trim().split(":");
+      weights.put(LoadTestOperation.valueOf(weight[0].toUpperCase()), Integer.parseInt(weight[1]));
+    }
+
+    return weights;
+  }
+}
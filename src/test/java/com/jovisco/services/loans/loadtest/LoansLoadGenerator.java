@@ -0,0 +1,434 @@
+package com.jovisco.services.loans.loadtest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.loans.LoansApplication;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+
+/**
+ * HTTP load generator for the loans API.
+ * 
+ * Sends a configurable mix of create/fetch/update/delete requests at a fixed
+ * arrival rate (open model), no matter how fast the application responds.
+ * Latency is measured from the time a request was due to be sent, so a stalled
+ * application shows up in the percentiles instead of silently lowering the
+ * request rate (coordinated omission).
+ * 
+ * Alternatively a fixed number of concurrent clients (closed model) each send
+ * their next request as soon as the previous one has completed - this shows how
+ * many requests the application can serve concurrently.
+ * 
+ * Unless a base url is given, the application is started on H2 with the dev
+ * profile. Run with:
+ * mvn -P loadtest test-compile exec:exec -Dloadtest.args="--loadtest.rate=500 --loadtest.duration=60s"
+ * 
+ * Options (defaults): --loadtest.rate=200 (requests per second),
+ * --loadtest.clients=0 (concurrent clients, replaces the rate if set),
+ * --loadtest.warmup=10s, --loadtest.duration=60s, --loadtest.loans=1000 (loans
+ * created before the test), --loadtest.mix=create:10,fetch:70,update:15,delete:5,
+ * --loadtest.base-url=http://host:port (test a running application). All other
+ * arguments are passed to the embedded application, e.g.
+ * --spring.threads.virtual.enabled=true or --spring.profiles.include=reactive
+ * to compare configurations. Memory and threads are sampled in the middle of
+ * the measurement.
+ */
+public class LoansLoadGenerator {
+
+  private static final String CORRELATION_ID_HEADER = "jovisco-banking-correlation-id";
+
+  private final LoadTestOptions options;
+
+  private final String loansUrl;
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+
+  // same modules as the application - LoanDto is read through its constructor parameter names
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  private final Map<LoadTestOperation, Recorder> recorders = new EnumMap<>(LoadTestOperation.class);
+
+  private final Map<LoadTestOperation, LongAdder> errors = new EnumMap<>(LoadTestOperation.class);
+
+  private final AtomicLong mobileNumbers = new AtomicLong(10_000_000_000L);
+
+  private final Queue<String> createdMobileNumbers = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private List<LoanDto> loans;
+
+  private volatile long measurementStart;
+
+  private volatile String resources = "n/a";
+
+  LoansLoadGenerator(LoadTestOptions options, String baseUrl) {
+
+    this.options = options;
+    this.loansUrl = baseUrl + "/api/v1/loans";
+    for (var operation : LoadTestOperation.values()) {
+      recorders.put(operation, new Recorder(3));
+      errors.put(operation, new LongAdder());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+
+    var options = LoadTestOptions.parse(args);
+
+    ConfigurableApplicationContext context = null;
+    var baseUrl = options.baseUrl();
+    if (baseUrl == null) {
+      context = startApplication(options.applicationArgs());
+      baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    try {
+      var generator = new LoansLoadGenerator(options, baseUrl);
+      generator.prepare();
+      generator.run();
+      generator.report();
+    } finally {
+      if (context != null) {
+        context.close();
+      }
+    }
+
+    // non-daemon threads left by the http client or the application must not keep the generator alive
+    System.exit(0);
+  }
+
+  private static ConfigurableApplicationContext startApplication(List<String> applicationArgs) {
+
+    // devtools would restart the application in another thread and pass the arguments twice
+    System.setProperty("spring.devtools.restart.enabled", "false");
+
+    // dev profile runs on H2 - everything that needs other services is switched off
+    var args = new ArrayList<>(List.of(
+        "--server.port=0",
+        "--spring.datasource.url=jdbc:h2:mem:loans-loadtest;DB_CLOSE_ON_EXIT=FALSE",
+        "--spring.r2dbc.url=r2dbc:h2:mem:///loans-loadtest",
+        "--spring.cloud.config.enabled=false",
+        "--spring.cloud.bus.enabled=false",
+        "--spring.cloud.kubernetes.enabled=false",
+        "--eureka.client.enabled=false",
+        "--spring.jpa.show-sql=false",
+        "--logging.level.com.jovisco=info",
+        "--build.version=loadtest"));
+    args.addAll(applicationArgs);
+
+    return new SpringApplicationBuilder(LoansApplication.class)
+        .profiles("dev")
+        .run(args.toArray(String[]::new));
+  }
+
+  /**
+   * Creates the loans to be fetched and updated during the test
+   */
+  void prepare() throws Exception {
+
+    var createDtos = IntStream.range(0, options.loans())
+        .mapToObj(i -> new CreateLoanDto(nextMobileNumber()))
+        .toList();
+
+    // one by one - the reactive profile has no batch endpoint
+    for (var createDto : createDtos) {
+      var response = httpClient.send(request(loansUrl)
+          .header("Content-Type", "application/json")
+          .POST(BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(createDto)))
+          .build(), BodyHandlers.discarding());
+      if (response.statusCode() != 201) {
+        throw new IllegalStateException("Could not create loans: HTTP " + response.statusCode());
+      }
+    }
+
+    loans = new ArrayList<>(createDtos.size());
+    for (var createDto : createDtos) {
+      var fetched = httpClient.send(request(loansUrl + "/" + createDto.getMobileNumber()).GET().build(),
+          BodyHandlers.ofByteArray());
+      loans.add(objectMapper.readValue(fetched.body(), LoanDto.class));
+    }
+  }
+
+  void run() throws InterruptedException {
+
+    if (options.clients() > 0) {
+      runClients();
+    } else {
+      runRate();
+    }
+  }
+
+  /**
+   * Sends requests at the configured rate for warmup and duration
+   */
+  private void runRate() throws InterruptedException {
+
+    var interval = TimeUnit.SECONDS.toNanos(1) / options.rate();
+    var start = System.nanoTime();
+    measurementStart = start + options.warmup().toNanos();
+    var end = measurementStart + options.duration().toNanos();
+    sampleResources(measurementStart + options.duration().toNanos() / 2);
+
+    var weights = options.mix();
+    var total = weights.values().stream().mapToInt(Integer::intValue).sum();
+
+    System.out.printf("sending %d requests/s for %s (warmup %s) to %s%n",
+        options.rate(), options.duration(), options.warmup(), loansUrl);
+
+    for (long i = 0;; i++) {
+      var intendedStart = start + i * interval;
+      if (intendedStart >= end) {
+        break;
+      }
+
+      // wait for the scheduled time - never for a response
+      long delay;
+      while ((delay = intendedStart - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(delay);
+      }
+
+      send(pickOperation(weights, total), intendedStart);
+    }
+
+    // give outstanding requests some time to complete
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  /**
+   * Runs the configured number of clients for warmup and duration, each one on a
+   * virtual thread of its own
+   */
+  private void runClients() throws InterruptedException {
+
+    var start = System.nanoTime();
+    measurementStart = start + options.warmup().toNanos();
+    var end = measurementStart + options.duration().toNanos();
+    sampleResources(measurementStart + options.duration().toNanos() / 2);
+
+    var weights = options.mix();
+    var total = weights.values().stream().mapToInt(Integer::intValue).sum();
+
+    System.out.printf("running %d concurrent clients for %s (warmup %s) against %s%n",
+        options.clients(), options.duration(), options.warmup(), loansUrl);
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < options.clients(); i++) {
+        executor.submit(() -> {
+          while (System.nanoTime() < end) {
+            var operation = pickOperation(weights, total);
+            var requestStart = System.nanoTime();
+            try {
+              var request = buildRequest(operation);
+              if (request == null) {
+                continue;
+              }
+              var response = httpClient.send(request, BodyHandlers.discarding());
+              record(operation, requestStart, response, null);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              return;
+            } catch (Exception e) {
+              record(operation, requestStart, null, e);
+            }
+          }
+        });
+      }
+    }
+  }
+
+  /**
+   * Samples memory and threads of the process in the middle of the measurement,
+   * while all clients are connected - generator and embedded application alike
+   * 
+   * @param at System.nanoTime() of the sample
+   */
+  private void sampleResources(long at) {
+
+    Thread.startVirtualThread(() -> {
+      LockSupport.parkNanos(at - System.nanoTime());
+
+      System.gc();
+      var heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+      var threads = ManagementFactory.getThreadMXBean().getThreadCount();
+      resources = String.format("heap after gc %d MB, rss %s, platform threads %d",
+          heapUsed / (1024 * 1024), residentSetSize(), threads);
+    });
+  }
+
+  // linux only
+  private static String residentSetSize() {
+
+    try {
+      return Files.readAllLines(Path.of("/proc/self/status")).stream()
+          .filter(line -> line.startsWith("VmRSS:"))
+          .map(line -> line.substring("VmRSS:".length()).trim())
+          .findFirst()
+          .orElse("n/a");
+    } catch (IOException e) {
+      return "n/a";
+    }
+  }
+
+  void report() {
+
+    // fractional - sub-second runs must not divide by zero
+    var seconds = options.duration().toNanos() / 1e9;
+    System.out.printf("%n%-8s %10s %8s %10s %10s %10s %10s %10s %10s%n",
+        "", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    for (var operation : LoadTestOperation.values()) {
+      var histogram = recorders.get(operation).getIntervalHistogram();
+      System.out.printf("%-8s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+          operation.name().toLowerCase(),
+          histogram.getTotalCount(),
+          errors.get(operation).sum(),
+          (double) histogram.getTotalCount() / seconds,
+          millis(histogram.getValueAtPercentile(50)),
+          millis(histogram.getValueAtPercentile(90)),
+          millis(histogram.getValueAtPercentile(99)),
+          millis(histogram.getValueAtPercentile(99.9)),
+          millis(histogram.getMaxValue()));
+    }
+    System.out.printf("%nresources: %s%n", resources);
+  }
+
+  private void send(LoadTestOperation operation, long intendedStart) {
+
+    HttpRequest request;
+    try {
+      request = buildRequest(operation);
+    } catch (Exception e) {
+      errors.get(operation).increment();
+      return;
+    }
+    if (request == null) {
+      return;
+    }
+
+    inFlight.incrementAndGet();
+    httpClient.sendAsync(request, BodyHandlers.discarding())
+        .whenComplete((response, exception) -> {
+          inFlight.decrementAndGet();
+          record(operation, intendedStart, response, exception);
+        });
+  }
+
+  // null if the operation has nothing to request
+  private HttpRequest buildRequest(LoadTestOperation operation) throws Exception {
+
+    return switch (operation) {
+      case CREATE -> {
+        var mobileNumber = nextMobileNumber();
+        createdMobileNumbers.add(mobileNumber);
+        yield request(loansUrl)
+            .header("Content-Type", "application/json")
+            .POST(BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(new CreateLoanDto(mobileNumber))))
+            .build();
+      }
+      case FETCH -> request(loansUrl + "/" + randomLoan().getMobileNumber()).GET().build();
+      case UPDATE -> {
+        var loan = randomLoan();
+        var update = LoanDto.builder()
+            .mobileNumber(loan.getMobileNumber())
+            .loanNumber(loan.getLoanNumber())
+            .loanType(loan.getLoanType())
+            .totalLoan(loan.getTotalLoan())
+            .amountPaid(ThreadLocalRandom.current().nextInt(loan.getTotalLoan()))
+            .outstandingAmount(loan.getOutstandingAmount())
+            .build();
+        yield request(loansUrl)
+            .header("Content-Type", "application/json")
+            .PUT(BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(update)))
+            .build();
+      }
+      case DELETE -> {
+        // only loans created during the test are deleted - if there are none yet, the delete is skipped
+        var mobileNumber = createdMobileNumbers.poll();
+        yield mobileNumber != null ? request(loansUrl + "/" + mobileNumber).DELETE().build() : null;
+      }
+    };
+  }
+
+  private void record(LoadTestOperation operation, long intendedStart, HttpResponse<Void> response,
+      Throwable exception) {
+
+    // requests scheduled during warmup are not recorded
+    if (intendedStart < measurementStart) {
+      return;
+    }
+
+    recorders.get(operation).recordValue(System.nanoTime() - intendedStart);
+    if (exception != null || response.statusCode() >= 400) {
+      errors.get(operation).increment();
+    }
+  }
+
+  private HttpRequest.Builder request(String url) {
+
+    return HttpRequest.newBuilder(URI.create(url))
+        .timeout(Duration.ofSeconds(30))
+        .header("Accept", "application/json")
+        .header(CORRELATION_ID_HEADER, "loadtest");
+  }
+
+  private LoadTestOperation pickOperation(Map<LoadTestOperation, Integer> weights, int total) {
+
+    var pick = ThreadLocalRandom.current().nextInt(total);
+    for (var weight : weights.entrySet()) {
+      pick -= weight.getValue();
+      if (pick < 0) {
+        return weight.getKey();
+      }
+    }
+
+    return LoadTestOperation.FETCH;
+  }
+
+  private LoanDto randomLoan() {
+    return loans.get(ThreadLocalRandom.current().nextInt(loans.size()));
+  }
+
+  private String nextMobileNumber() {
+    return "+1" + mobileNumbers.incrementAndGet();
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+}
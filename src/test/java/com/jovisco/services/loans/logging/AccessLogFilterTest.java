@@ -0,0 +1,108 @@
+package com.jovisco.services.loans.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.repositories.LoansRepository;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+// entries are captured next to the asynchronous appender - test loans are removed after each test
+@SpringBootTest(properties = "loans.logging.access.sample-rate=0.0")
+public class AccessLogFilterTest {
+
+  @Autowired
+  WebApplicationContext wac;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Autowired
+  LoansRepository loansRepository;
+
+  MockMvc mockMvc;
+
+  ListAppender<ILoggingEvent> accessLog = new ListAppender<>();
+
+  final String correlationId = "test-correlation-id";
+
+  final String mobileNumber = "+177734567890";
+
+  @BeforeEach
+  void setUp() {
+
+    mockMvc = MockMvcBuilders.webAppContextSetup(wac).addFilters(wac.getBean(AccessLogFilter.class)).build();
+    accessLog.start();
+    ((Logger) LoggerFactory.getLogger("loans.access")).addAppender(accessLog);
+  }
+
+  @AfterEach
+  void tearDown() {
+
+    ((Logger) LoggerFactory.getLogger("loans.access")).detachAppender(accessLog);
+    loansRepository.findByMobileNumber(mobileNumber).ifPresent(loansRepository::delete);
+  }
+
+  @Test
+  void testFailedRequestsAreAlwaysLogged() throws Exception {
+
+    // successful requests are not sampled at all
+    mockMvc.perform(post("/api/v1/loans")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new CreateLoanDto(mobileNumber))))
+        .andExpect(status().isCreated());
+    assertThat(accessLog.list).isEmpty();
+
+    mockMvc.perform(post("/api/v1/loans")
+        .header(LoansConstants.CORRELATION_ID_HEADER, correlationId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new CreateLoanDto(mobileNumber))))
+        .andExpect(status().isBadRequest());
+
+    assertThat(accessLog.list).singleElement()
+        .extracting(ILoggingEvent::getFormattedMessage)
+        .asString()
+        .startsWith("correlationId=" + correlationId + " operation=createLoan method=POST status=400 ")
+        .endsWith("rows=0");
+  }
+
+  @Test
+  void testRowsAndStatements() throws Exception {
+
+    var filter = new AccessLogFilter(1.0, Duration.ofMillis(500));
+    mockMvc = MockMvcBuilders.webAppContextSetup(wac).addFilters(filter).build();
+
+    mockMvc.perform(post("/api/v1/loans")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new CreateLoanDto(mobileNumber))))
+        .andExpect(status().isCreated());
+    mockMvc.perform(get("/api/v1/loans/" + mobileNumber).header(LoansConstants.CORRELATION_ID_HEADER, correlationId))
+        .andExpect(status().isOk());
+
+    assertThat(accessLog.list).hasSize(2);
+    assertThat(accessLog.list.get(1).getFormattedMessage())
+        .startsWith("correlationId=" + correlationId + " operation=fetchLoan method=GET status=200 ")
+        .containsPattern("statements=[1-9][0-9]* ")
+        .endsWith("rows=1");
+  }
+}
@@ -0,0 +1,86 @@
+package com.jovisco.services.loans.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.jovisco.services.loans.constants.LoansConstants;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class CorrelationIdFilterTest {
+
+  CorrelationIdFilter correlationIdFilter = new CorrelationIdFilter();
+
+  AtomicReference<String> loggedCorrelationId = new AtomicReference<>();
+
+  // records the MDC as seen while the request is served
+  MockFilterChain filterChain = new MockFilterChain(new HttpServlet() {
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) {
+      loggedCorrelationId.set(MDC.get(CorrelationIdFilter.MDC_KEY));
+    }
+  });
+
+  @Test
+  void testCorrelationIdIsTakenOver() throws Exception {
+
+    var request = new MockHttpServletRequest("GET", "/api/v1/loans/+122234567890");
+    request.addHeader(LoansConstants.CORRELATION_ID_HEADER, "test-correlation-id");
+    var response = new MockHttpServletResponse();
+
+    correlationIdFilter.doFilter(request, response, filterChain);
+
+    assertThat(response.getHeader(LoansConstants.CORRELATION_ID_HEADER)).isEqualTo("test-correlation-id");
+    assertThat(request.getAttribute(CorrelationIdFilter.CORRELATION_ID_ATTRIBUTE)).isEqualTo("test-correlation-id");
+    assertThat(loggedCorrelationId.get()).isEqualTo("test-correlation-id");
+    assertThat(MDC.get(CorrelationIdFilter.MDC_KEY)).isNull();
+  }
+
+  @Test
+  void testCorrelationIdIsCreated() throws Exception {
+
+    var request = new MockHttpServletRequest("GET", "/api/v1/loans/+122234567890");
+    var response = new MockHttpServletResponse();
+
+    correlationIdFilter.doFilter(request, response, filterChain);
+
+    assertThat(response.getHeader(LoansConstants.CORRELATION_ID_HEADER)).matches("[0-9a-f]{32}");
+    assertThat(loggedCorrelationId.get()).isEqualTo(response.getHeader(LoansConstants.CORRELATION_ID_HEADER));
+  }
+
+  @Test
+  void testInvalidCorrelationIdIsReplaced() throws Exception {
+
+    // would end up in log lines and response headers as it is
+    var request = new MockHttpServletRequest("GET", "/api/v1/loans/+122234567890");
+    request.addHeader(LoansConstants.CORRELATION_ID_HEADER, "id\nINFO forged log line");
+    var response = new MockHttpServletResponse();
+
+    correlationIdFilter.doFilter(request, response, filterChain);
+
+    assertThat(response.getHeader(LoansConstants.CORRELATION_ID_HEADER)).matches("[0-9a-f]{32}");
+    assertThat(CorrelationIdFilter.isValid("x".repeat(65))).isFalse();
+    assertThat(CorrelationIdFilter.isValid("")).isFalse();
+  }
+
+  @Test
+  void testOtherPathsAreNotFiltered() throws Exception {
+
+    var request = new MockHttpServletRequest("GET", "/actuator/health");
+    var response = new MockHttpServletResponse();
+
+    correlationIdFilter.doFilter(request, response, filterChain);
+
+    assertThat(response.getHeader(LoansConstants.CORRELATION_ID_HEADER)).isNull();
+    assertThat(loggedCorrelationId.get()).isNull();
+  }
+}
@@ -0,0 +1,136 @@
+package com.jovisco.services.loans.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.repositories.LoansRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// operations are timed once committed - test loans are removed after each test
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest
+public class LoansMetricsTest {
+
+  @Autowired
+  WebApplicationContext wac;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  LoansRepository loansRepository;
+
+  MockMvc mockMvc;
+
+  static final String CORRELATION_ID_HEADER = "jovisco-banking-correlation-id";
+
+  final String correlationId = "test-correlation-id";
+
+  final String mobileNumber = "+166634567890";
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(wac).build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    loansRepository.findByMobileNumber(mobileNumber).ifPresent(loansRepository::delete);
+  }
+
+  @Test
+  void testOperationsAndOutcomes() throws Exception {
+
+    var created = countOutcomes(LoansMetrics.CREATE, LoansMetrics.CREATED);
+    var duplicates = countOutcomes(LoansMetrics.CREATE, LoansMetrics.DUPLICATE);
+    var validationFailures = countOutcomes(LoansMetrics.CREATE, LoansMetrics.VALIDATION_FAILED);
+    var notFound = countOutcomes(LoansMetrics.FETCH, LoansMetrics.NOT_FOUND);
+    var timed = countTimed(LoansMetrics.CREATE, "none");
+
+    createLoan(mobileNumber).andExpect(status().isCreated());
+    createLoan(mobileNumber).andExpect(status().isBadRequest());
+    createLoan("not a mobile number").andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/v1/loans/+166634567899").header(CORRELATION_ID_HEADER, correlationId)).andExpect(status().isNotFound());
+
+    assertThat(countOutcomes(LoansMetrics.CREATE, LoansMetrics.CREATED)).isEqualTo(created + 1);
+    assertThat(countOutcomes(LoansMetrics.CREATE, LoansMetrics.DUPLICATE)).isEqualTo(duplicates + 1);
+    assertThat(countOutcomes(LoansMetrics.CREATE, LoansMetrics.VALIDATION_FAILED)).isEqualTo(validationFailures + 1);
+    assertThat(countOutcomes(LoansMetrics.FETCH, LoansMetrics.NOT_FOUND)).isEqualTo(notFound + 1);
+    assertThat(countTimed(LoansMetrics.CREATE, "none")).isEqualTo(timed + 1);
+    assertThat(meterRegistry.get(LoansMetrics.OPERATIONS)
+        .tag("operation", LoansMetrics.FETCH)
+        .tag("exception", "ResourceNotFoundException")
+        .timer().count()).isPositive();
+  }
+
+  @Test
+  void testDashboardMetricsArePublished() throws Exception {
+
+    createLoan(mobileNumber).andExpect(status().isCreated());
+    mockMvc.perform(get("/api/v1/loans/" + mobileNumber).header(CORRELATION_ID_HEADER, correlationId)).andExpect(status().isOk());
+
+    var scrape = mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    // every metric queried by the dashboard is published - tagged with the application name
+    var dashboard = Files.readString(Path.of("grafana", "loans-dashboard.json"));
+    var metricNames = new HashSet<String>();
+    var matcher = Pattern.compile("\\b((?:loans|hikaricp)_[a-z_]+)\\{").matcher(dashboard);
+    while (matcher.find()) {
+      metricNames.add(matcher.group(1));
+    }
+
+    assertThat(metricNames).contains("loans_operations_seconds_bucket", "loans_outcomes_total",
+        "loans_datasource_pool_saturation");
+    metricNames.forEach(metricName -> assertThat(scrape).contains(metricName + "{application=\"loans\""));
+    assertThat(scrape).contains("le=\"0.1\"");
+  }
+
+  private ResultActions createLoan(String mobileNumber) throws Exception {
+
+    return mockMvc.perform(post("/api/v1/loans")
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(new CreateLoanDto(mobileNumber))));
+  }
+
+  private double countOutcomes(String operation, String outcome) {
+
+    var counter = meterRegistry.find(LoansMetrics.OUTCOMES).tag("operation", operation).tag("outcome", outcome)
+        .counter();
+    return counter != null ? counter.count() : 0;
+  }
+
+  private long countTimed(String operation, String exception) {
+
+    var timer = meterRegistry.find(LoansMetrics.OPERATIONS).tag("operation", operation).tag("exception", exception)
+        .timer();
+    return timer != null ? timer.count() : 0;
+  }
+}
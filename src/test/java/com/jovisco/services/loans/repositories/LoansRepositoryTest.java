@@ -1,11 +1,17 @@
 package com.jovisco.services.loans.repositories;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 
@@ -64,6 +70,80 @@ public class LoansRepositoryTest {
     assertFalse(loansRepository.findByLoanNumber(notExistingLoanNumber).isPresent());
   }
 
+  @Transactional
+  @Rollback
+  @Test
+  void testUpdateLoan() {
+
+    // only updated if the loan still belongs to the expected mobile number
+    assertThat(loansRepository.updateLoan(testLoan.getLoanNumber(), "+122234567899", null, mobileNumber,
+        LoansConstants.HOME_LOAN, 10000, 5000, 5000, LocalDateTime.now(), "test")).isZero();
+    assertThat(loansRepository.updateLoan(testLoan.getLoanNumber(), mobileNumber, null, mobileNumber,
+        LoansConstants.HOME_LOAN, 10000, 5000, 5000, LocalDateTime.now(), "test")).isEqualTo(1);
+
+    assertThat(loansRepository.findByMobileNumber(mobileNumber))
+        .hasValueSatisfying(loan -> assertThat(loan.getAmountPaid()).isEqualTo(5000));
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testDeleteByMobileNumber() {
+
+    assertThat(loansRepository.deleteByMobileNumber(mobileNumber)).isEqualTo(1);
+    assertThat(loansRepository.deleteByMobileNumber(mobileNumber)).isZero();
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testFindSummaries() {
+
+    var page = loansRepository.findSummaries(LoansConstants.HOME_LOAN, 6000, 6000, PageRequest.of(0, 10, Sort.by("id")));
+    assertThat(page.getContent()).extracting("loanNumber").contains(testLoan.getLoanNumber());
+
+    // outside the range of outstanding amounts
+    page = loansRepository.findSummaries(null, 0, 5999, PageRequest.of(0, 10, Sort.by("id")));
+    assertThat(page.getContent()).extracting("loanNumber").doesNotContain(testLoan.getLoanNumber());
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testFindSummariesAfter() {
+
+    assertThat(loansRepository.findSummariesAfter(null, 0, Integer.MAX_VALUE, testLoan.getId() - 1, Limit.of(1)))
+        .extracting("id").containsExactly(testLoan.getId());
+    assertThat(loansRepository.findSummariesAfter(null, 0, Integer.MAX_VALUE, testLoan.getId(), Limit.of(1)))
+        .extracting("id").doesNotContain(testLoan.getId());
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testSumByLoanType() {
+
+    loansRepository.save(Loan.builder()
+        .mobileNumber("+122234567891")
+        .loanNumber("123456789013")
+        .loanType("Car Loan")
+        .totalLoan(10000)
+        .amountPaid(8000)
+        .outstandingAmount(2000)
+        .build());
+
+    var carLoans = loansRepository.sumByLoanType().stream()
+        .filter(totals -> "Car Loan".equals(totals.getLoanType()))
+        .findFirst();
+    assertThat(carLoans).hasValueSatisfying(totals -> {
+      assertThat(totals.getCount()).isEqualTo(1);
+      assertThat(totals.getTotalLoan()).isEqualTo(10000);
+      assertThat(totals.getAmountPaid()).isEqualTo(8000);
+      assertThat(totals.getOutstandingAmount()).isEqualTo(2000);
+      assertThat(totals.getUtilisation()).isEqualTo(0.2);
+    });
+  }
+
   private Loan buildLoan() {
     return Loan.builder()
         .mobileNumber(mobileNumber)
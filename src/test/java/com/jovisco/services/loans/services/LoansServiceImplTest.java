@@ -5,16 +5,28 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.transaction.TestTransaction;
 
+import com.jovisco.services.loans.cache.LoansCache;
 import com.jovisco.services.loans.constants.LoansConstants;
 import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.PaymentDto;
 import com.jovisco.services.loans.entities.Loan;
 import com.jovisco.services.loans.exceptions.LoanAlreadyExistsException;
+import com.jovisco.services.loans.exceptions.PaymentRejectedException;
 import com.jovisco.services.loans.exceptions.ResourceNotFoundException;
 import com.jovisco.services.loans.mappers.LoanMapper;
 import com.jovisco.services.loans.repositories.LoansRepository;
@@ -30,11 +42,20 @@ public class LoansServiceImplTest {
   @Autowired
   LoansRepository loansRepository;
 
+  @Autowired
+  LoansCache loansCache;
+
+  @Autowired
+  CacheManager cacheManager;
+
   Loan testLoan;
 
   @BeforeEach
   void setUp() {
     testLoan = loansRepository.save(buildLoan());
+
+    // test loan is written directly to the database - make sure no stale copy is cached
+    loansCache.evict(testLoan.getMobileNumber());
   }
 
   @Transactional
@@ -64,6 +85,30 @@ public class LoansServiceImplTest {
 
   }
 
+  @Transactional
+  @Rollback
+  @Test
+  void testCreateLoans() {
+
+    // create new loans - one of them already exists, another one is requested twice
+    var createDtos = List.of(
+        new CreateLoanDto("+233345678901"),
+        new CreateLoanDto(testLoan.getMobileNumber()),
+        new CreateLoanDto("+233345678902"),
+        new CreateLoanDto("+233345678901"));
+    var results = loansService.createLoans(createDtos);
+
+    // check the result reported for each item
+    assertThat(results).hasSize(createDtos.size());
+    assertThat(results).extracting("statusCode")
+        .containsExactly(LoansConstants.STATUS_201, LoansConstants.STATUS_400, LoansConstants.STATUS_201,
+            LoansConstants.STATUS_400);
+
+    // check if loans have been created
+    assertTrue(loansRepository.findByMobileNumber("+233345678901").isPresent());
+    assertTrue(loansRepository.findByMobileNumber("+233345678902").isPresent());
+  }
+
   @Transactional
   @Rollback
   @Test
@@ -100,6 +145,26 @@ public class LoansServiceImplTest {
     assertThat(loanDto.getMobileNumber()).isEqualTo(testLoan.getMobileNumber());
   }
 
+  @Transactional
+  @Rollback
+  @Test
+  void testFetchLoanFromCache() {
+
+    var loanDto = loansService.fetchLoan(testLoan.getMobileNumber());
+
+    // change loan behind the service's back - the cached loan is still returned
+    testLoan.setAmountPaid(5000);
+    loansRepository.saveAndFlush(testLoan);
+    assertThat(loansService.fetchLoan(testLoan.getMobileNumber()).getAmountPaid()).isEqualTo(loanDto.getAmountPaid());
+
+    // change loan via the service - the cached loan is evicted once the transaction is completed
+    var updateDto = LoanMapper.mapToLoanDto(testLoan);
+    updateDto.setAmountPaid(6000);
+    loansService.updateLoan(updateDto);
+    TestTransaction.end();
+    assertThat(cacheManager.getCache(LoansCache.LOANS_CACHE).get(testLoan.getMobileNumber())).isNull();
+  }
+
   @Transactional
   @Rollback
   @Test
@@ -112,6 +177,106 @@ public class LoansServiceImplTest {
         .isThrownBy(() -> loansService.fetchLoan(testLoan.getMobileNumber()));
   }
 
+  @Transactional
+  @Rollback
+  @Test
+  void testListLoans() {
+
+    saveCarLoans();
+
+    // second page of car loans with an outstanding amount of at least 2000
+    var page = loansService.listLoans("Car Loan", 2000, null, 1, 2);
+
+    assertThat(page.getTotalElements()).isEqualTo(4);
+    assertThat(page.getTotalPages()).isEqualTo(2);
+    assertThat(page.getLoans()).extracting("outstandingAmount").containsExactly(4000, 5000);
+    assertThat(page.getNextCursor()).isNull();
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testListLoansAfter() {
+
+    saveCarLoans();
+
+    // follow the cursors through all car loans with an outstanding amount of at most 4000
+    var outstandingAmounts = new ArrayList<Integer>();
+    var page = loansService.listLoansAfter("Car Loan", null, 4000, 0, 3);
+    page.getLoans().forEach(loan -> outstandingAmounts.add(loan.getOutstandingAmount()));
+    assertThat(page.getNextCursor()).isNotNull();
+    page = loansService.listLoansAfter("Car Loan", null, 4000, page.getNextCursor(), 3);
+    page.getLoans().forEach(loan -> outstandingAmounts.add(loan.getOutstandingAmount()));
+
+    assertThat(outstandingAmounts).containsExactly(1000, 2000, 3000, 4000);
+    assertThat(page.getNextCursor()).isNull();
+    assertThat(page.getTotalElements()).isNull();
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testPostPayment() {
+
+    var balance = loansService.postPayment(testLoan.getLoanNumber(), new PaymentDto(1000));
+
+    assertThat(balance.getAmountPaid()).isEqualTo(5000);
+    assertThat(balance.getOutstandingAmount()).isEqualTo(5000);
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testPostPaymentExceedingOutstandingAmount() {
+
+    assertThatExceptionOfType(PaymentRejectedException.class)
+        .isThrownBy(() -> loansService.postPayment(testLoan.getLoanNumber(), new PaymentDto(6001)));
+
+    // balance is unchanged
+    assertThat(loansRepository.findByLoanNumber(testLoan.getLoanNumber()))
+        .hasValueSatisfying(loan -> assertThat(loan.getOutstandingAmount()).isEqualTo(6000));
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testPostPaymentWithNotFoundError() {
+
+    assertThatExceptionOfType(ResourceNotFoundException.class)
+        .isThrownBy(() -> loansService.postPayment("999999999999", new PaymentDto(1000)));
+  }
+
+  // not transactional - payments are committed concurrently, the test loan is removed afterwards
+  @Test
+  void testPostPaymentsConcurrently() throws Exception {
+
+    try (var executor = Executors.newFixedThreadPool(8)) {
+
+      // more payments than the outstanding amount allows - none may be lost, none may overdraw the loan
+      var results = IntStream.range(0, 80)
+          .mapToObj(i -> executor.submit(() -> loansService.postPayment(testLoan.getLoanNumber(), new PaymentDto(100))))
+          .toList();
+      var accepted = 0;
+      for (Future<?> result : results) {
+        try {
+          result.get();
+          accepted++;
+        } catch (ExecutionException e) {
+          assertThat(e.getCause()).isInstanceOf(PaymentRejectedException.class);
+        }
+      }
+
+      assertThat(accepted).isEqualTo(60);
+      assertThat(loansRepository.findByLoanNumber(testLoan.getLoanNumber()))
+          .hasValueSatisfying(loan -> {
+            assertThat(loan.getAmountPaid()).isEqualTo(10000);
+            assertThat(loan.getOutstandingAmount()).isZero();
+          });
+    } finally {
+      loansRepository.deleteById(testLoan.getId());
+    }
+  }
+
   @Transactional
   @Rollback
   @Test
@@ -134,6 +299,27 @@ public class LoansServiceImplTest {
         loan.getOutstandingAmount() == loanDto.getOutstandingAmount());
   }
 
+  @Transactional
+  @Rollback
+  @Test
+  void testUpdateLoanWithNewMobileNumber() {
+
+    // cache the loan for its current mobile number
+    loansService.fetchLoan(testLoan.getMobileNumber());
+
+    // change the mobile number of the loan
+    var loanDto = LoanMapper.mapToLoanDto(testLoan);
+    loanDto.setMobileNumber("+122234567899");
+
+    assertTrue(loansService.updateLoan(loanDto));
+
+    // loan is found by its new mobile number only, the previous one is evicted from the cache
+    assertTrue(loansRepository.findByMobileNumber(loanDto.getMobileNumber()).isPresent());
+    assertFalse(loansRepository.findByMobileNumber(testLoan.getMobileNumber()).isPresent());
+    TestTransaction.end();
+    assertThat(cacheManager.getCache(LoansCache.LOANS_CACHE).get(testLoan.getMobileNumber())).isNull();
+  }
+
   @Transactional
   @Rollback
   @Test
@@ -148,6 +334,20 @@ public class LoansServiceImplTest {
         .isThrownBy(() -> loansService.updateLoan(loanDto));
   }
 
+  private void saveCarLoans() {
+
+    for (int i = 1; i <= 5; i++) {
+      loansRepository.save(Loan.builder()
+          .mobileNumber("+14445678900" + i)
+          .loanNumber("30000000000" + i)
+          .loanType("Car Loan")
+          .totalLoan(10000)
+          .amountPaid(10000 - i * 1000)
+          .outstandingAmount(i * 1000)
+          .build());
+    }
+  }
+
   private Loan buildLoan() {
     return Loan.builder()
         .mobileNumber("+122234567890")
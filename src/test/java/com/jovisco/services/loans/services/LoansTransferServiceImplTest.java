@@ -0,0 +1,116 @@
+package com.jovisco.services.loans.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.Rollback;
+
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.entities.Loan;
+import com.jovisco.services.loans.repositories.LoansRepository;
+
+import jakarta.transaction.Transactional;
+
+@SpringBootTest
+public class LoansTransferServiceImplTest {
+
+  @Autowired
+  LoansTransferService loansTransferService;
+
+  @Autowired
+  LoansRepository loansRepository;
+
+  Loan testLoan;
+
+  @BeforeEach
+  void setUp() {
+    testLoan = loansRepository.save(buildLoan());
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testExportLoans() throws Exception {
+
+    var outputStream = new ByteArrayOutputStream();
+    loansTransferService.exportLoans(outputStream);
+
+    // every loan is written on a line of its own
+    var lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+    assertThat(lines).hasSize((int) loansRepository.count());
+    assertThat(lines).anyMatch(line -> line.contains("\"loanNumber\":\"" + testLoan.getLoanNumber() + "\""));
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testImportLoans() throws Exception {
+
+    // update the test loan, create another one and reject two invalid lines
+    var ndjson = """
+        {"mobileNumber": "+122234567890", "loanNumber": "123456789012", "loanType": "Home Loan", "totalLoan": 10000, "amountPaid": 5000, "outstandingAmount": 5000}
+        {"mobileNumber": "+233345678901", "loanNumber": "223456789012", "loanType": "Car Loan", "totalLoan": 20000, "amountPaid": 0, "outstandingAmount": 20000}
+
+        {"mobileNumber": "INVALID", "loanNumber": "323456789012", "loanType": "Car Loan", "totalLoan": 20000, "amountPaid": 0, "outstandingAmount": 20000}
+        not json
+        """;
+    var result = loansTransferService.importLoans(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+    assertThat(result.getCreated()).isEqualTo(1);
+    assertThat(result.getUpdated()).isEqualTo(1);
+    assertThat(result.getRejected()).isEqualTo(2);
+    assertThat(result.getErrors()).hasSize(2);
+    assertThat(result.getErrors().get(0)).startsWith("line 4: mobileNumber");
+
+    // check that the loans have been written to the database
+    assertThat(loansRepository.findByLoanNumber(testLoan.getLoanNumber()).get().getAmountPaid()).isEqualTo(5000);
+    assertTrue(loansRepository.findByLoanNumber("223456789012").isPresent());
+  }
+
+  @Transactional
+  @Rollback
+  @Test
+  void testImportLoansMobileNumberTaken() throws Exception {
+
+    // the first line takes the mobile number of the test loan, the third one the mobile number of the second line
+    var ndjson = """
+        {"mobileNumber": "+122234567890", "loanNumber": "423456789012", "loanType": "Home Loan", "totalLoan": 10000, "amountPaid": 0, "outstandingAmount": 10000}
+        {"mobileNumber": "+244445678901", "loanNumber": "523456789012", "loanType": "Car Loan", "totalLoan": 20000, "amountPaid": 0, "outstandingAmount": 20000}
+        {"mobileNumber": "+244445678901", "loanNumber": "623456789012", "loanType": "Car Loan", "totalLoan": 20000, "amountPaid": 0, "outstandingAmount": 20000}
+        """;
+    var result = loansTransferService.importLoans(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+    assertThat(result.getCreated()).isEqualTo(1);
+    assertThat(result.getUpdated()).isZero();
+    assertThat(result.getRejected()).isEqualTo(2);
+    assertThat(result.getErrors()).containsExactly(
+        "line 1: mobileNumber: " + LoansConstants.MESSAGE_400_ALREADY_EXISTS,
+        "line 3: mobileNumber: " + LoansConstants.MESSAGE_400_ALREADY_EXISTS);
+
+    // the test loan keeps its mobile number, the other lines are written
+    assertThat(loansRepository.findByMobileNumber("+122234567890").get().getLoanNumber())
+        .isEqualTo(testLoan.getLoanNumber());
+    assertThat(loansRepository.findByLoanNumber("423456789012")).isEmpty();
+    assertThat(loansRepository.findByLoanNumber("523456789012")).isPresent();
+    assertThat(loansRepository.findByLoanNumber("623456789012")).isEmpty();
+  }
+
+  private Loan buildLoan() {
+    return Loan.builder()
+        .mobileNumber("+122234567890")
+        .loanNumber("123456789012")
+        .loanType(LoansConstants.HOME_LOAN)
+        .totalLoan(10000)
+        .amountPaid(4000)
+        .outstandingAmount(6000)
+        .build();
+  }
+}
@@ -0,0 +1,134 @@
+package com.jovisco.services.loans.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.jovisco.services.loans.constants.LoansConstants;
+import com.jovisco.services.loans.entities.Loan;
+import com.jovisco.services.loans.events.PaymentEvent;
+import com.jovisco.services.loans.repositories.LoansRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// payments are written by the pipeline's own threads - test loans are removed after each test
+@SpringBootTest(properties = {
+    "loans.payments.ingestion.lanes=2",
+    "loans.payments.ingestion.batch-size=50",
+    "loans.payments.ingestion.linger=20ms"
+})
+public class PaymentIngestionServiceImplTest {
+
+  @Autowired
+  PaymentIngestionService paymentIngestionService;
+
+  @Autowired
+  LoansRepository loansRepository;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  List<Loan> testLoans = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    loansRepository.deleteAll(testLoans);
+  }
+
+  @Test
+  void testSubmitPayments() {
+
+    var first = saveLoan("+133345678901", "223456789011");
+    var second = saveLoan("+133345678902", "223456789012");
+    var applied = countEvents("applied");
+    var batches = countBatches();
+
+    // many small payments for few loans - they are merged into few updates
+    for (int i = 0; i < 200; i++) {
+      assertThat(paymentIngestionService.submit(new PaymentEvent(i % 2 == 0 ? first : second, 10))).isTrue();
+    }
+
+    // events are counted after the commit - the last batch might be visible before it is counted
+    await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+      assertThat(amountPaid(first)).isEqualTo(4000 + 1000);
+      assertThat(amountPaid(second)).isEqualTo(4000 + 1000);
+      assertThat(countEvents("applied") - applied).isEqualTo(200);
+    });
+    assertThat(countBatches() - batches).isLessThan(200);
+    assertThat(loansRepository.findByLoanNumber(first))
+        .hasValueSatisfying(loan -> assertThat(loan.getOutstandingAmount()).isEqualTo(6000 - 1000));
+  }
+
+  @Test
+  void testSubmitPaymentsExceedingOutstandingAmount() {
+
+    var loanNumber = saveLoan("+133345678903", "223456789013");
+    var rejected = countEvents("rejected");
+
+    // the second payment exceeds the outstanding amount, the third one fits again
+    paymentIngestionService.submit(new PaymentEvent(loanNumber, 5000));
+    paymentIngestionService.submit(new PaymentEvent(loanNumber, 3000));
+    paymentIngestionService.submit(new PaymentEvent(loanNumber, 1000));
+    paymentIngestionService.submit(new PaymentEvent("999999999999", 1000));
+
+    await().atMost(Duration.ofSeconds(10))
+        .untilAsserted(() -> assertThat(countEvents("rejected") - rejected).isEqualTo(2));
+    await().atMost(Duration.ofSeconds(10))
+        .untilAsserted(() -> assertThat(amountPaid(loanNumber)).isEqualTo(4000 + 5000 + 1000));
+  }
+
+  @Test
+  void testSubmitNonPositivePaymentsRefused() {
+
+    var loanNumber = saveLoan("+133345678904", "223456789014");
+    var rejected = countEvents("rejected");
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> paymentIngestionService.submit(new PaymentEvent(loanNumber, 0)));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> paymentIngestionService.submit(new PaymentEvent(loanNumber, -5000)));
+    assertThat(countEvents("rejected") - rejected).isEqualTo(2);
+
+    // payments of the same loan are applied in order - once the valid one is applied, the refused ones would have been
+    paymentIngestionService.submit(new PaymentEvent(loanNumber, 1000));
+    await().atMost(Duration.ofSeconds(10))
+        .untilAsserted(() -> assertThat(amountPaid(loanNumber)).isEqualTo(4000 + 1000));
+    assertThat(loansRepository.findByLoanNumber(loanNumber))
+        .hasValueSatisfying(loan -> assertThat(loan.getOutstandingAmount()).isEqualTo(6000 - 1000));
+  }
+
+  private String saveLoan(String mobileNumber, String loanNumber) {
+
+    testLoans.add(loansRepository.save(Loan.builder()
+        .mobileNumber(mobileNumber)
+        .loanNumber(loanNumber)
+        .loanType(LoansConstants.HOME_LOAN)
+        .totalLoan(10000)
+        .amountPaid(4000)
+        .outstandingAmount(6000)
+        .build()));
+
+    return loanNumber;
+  }
+
+  private int amountPaid(String loanNumber) {
+    return loansRepository.findByLoanNumber(loanNumber).orElseThrow().getAmountPaid();
+  }
+
+  private double countEvents(String outcome) {
+    return meterRegistry.get("loans.payments.ingestion.events").tag("outcome", outcome).counter().count();
+  }
+
+  private long countBatches() {
+    return meterRegistry.get("loans.payments.ingestion.batch.size").summary().count();
+  }
+}
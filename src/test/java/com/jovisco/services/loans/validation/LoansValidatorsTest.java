@@ -0,0 +1,195 @@
+package com.jovisco.services.loans.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.jovisco.services.loans.dtos.CreateLoanDto;
+import com.jovisco.services.loans.dtos.LoanDto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+
+// the validators must accept exactly what the former @Pattern regexes accepted
+public class LoansValidatorsTest {
+
+  static final Pattern MOBILE_NUMBER_PATTERN = Pattern.compile("^\\+[1-9]{1}[0-9]{3,14}$");
+
+  static final Pattern LOAN_NUMBER_PATTERN = Pattern.compile("(^$|[0-9]{12})");
+
+  // digits, signs and look-alikes: non-ascii digits, whitespace, line terminators and control characters
+  static final char[] ALPHABET = {
+      '+', '0', '1', '5', '9', 'a', '-', ' ', '\n', '\r', '\u0000', '\u0663', '\uFF10', '\u00B9'
+  };
+
+  final Random random = new Random(4711);
+
+  final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+
+  @AfterEach
+  void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Test
+  void testMobileNumberExhaustiveShortInput() {
+    assertSameForAll(allStrings(5), MOBILE_NUMBER_PATTERN, MobileNumberValidator::isMobileNumber);
+  }
+
+  @Test
+  void testLoanNumberExhaustiveShortInput() {
+    assertSameForAll(allStrings(5), LOAN_NUMBER_PATTERN, LoanNumberValidator::isLoanNumber);
+  }
+
+  @Test
+  void testMobileNumberRandomInput() {
+
+    var inputs = new ArrayList<String>();
+    for (int i = 0; i < 100_000; i++) {
+      inputs.add(randomString(20));
+      inputs.add(mutate("+" + (1 + random.nextInt(9)) + digits(3 + random.nextInt(12))));
+    }
+    assertSameForAll(inputs, MOBILE_NUMBER_PATTERN, MobileNumberValidator::isMobileNumber);
+  }
+
+  @Test
+  void testLoanNumberRandomInput() {
+
+    var inputs = new ArrayList<String>();
+    for (int i = 0; i < 100_000; i++) {
+      inputs.add(randomString(16));
+      inputs.add(mutate(digits(12)));
+    }
+    assertSameForAll(inputs, LOAN_NUMBER_PATTERN, LoanNumberValidator::isLoanNumber);
+  }
+
+  @Test
+  void testBoundaries() {
+
+    assertThat(MobileNumberValidator.isMobileNumber("+1234")).isTrue();
+    assertThat(MobileNumberValidator.isMobileNumber("+123")).isFalse();
+    assertThat(MobileNumberValidator.isMobileNumber("+123456789012345")).isTrue();
+    assertThat(MobileNumberValidator.isMobileNumber("+1234567890123456")).isFalse();
+    assertThat(MobileNumberValidator.isMobileNumber("+1234\n")).isFalse();
+
+    // the odd empty case of the pattern - rejected by @NotEmpty
+    assertThat(LoanNumberValidator.isLoanNumber("")).isTrue();
+    assertThat(LoanNumberValidator.isLoanNumber("123456789012")).isTrue();
+    assertThat(LoanNumberValidator.isLoanNumber("12345678901\n")).isFalse();
+    assertThat(new LoanNumberValidator().isValid(null, null)).isTrue();
+    assertThat(new MobileNumberValidator().isValid(null, null)).isTrue();
+  }
+
+  @Test
+  void testViolationsOfDtos() {
+
+    var validator = validatorFactory.getValidator();
+
+    assertThat(messages(validator.validate(new CreateLoanDto("+0123"))))
+        .containsExactly("mobileNumber: Mobile number must be valid");
+    assertThat(messages(validator.validate(new CreateLoanDto(""))))
+        .containsExactlyInAnyOrder("mobileNumber: Mobile number must not be empty",
+            "mobileNumber: Mobile number must be valid");
+    assertThat(messages(validator.validate(new CreateLoanDto(null))))
+        .containsExactly("mobileNumber: Mobile number must not be empty");
+
+    var loanDto = LoanDto.builder()
+        .mobileNumber("+122234567890")
+        .loanNumber("")
+        .loanType("Home Loan")
+        .totalLoan(1000)
+        .build();
+    assertThat(messages(validator.validate(loanDto)))
+        .containsExactly("loanNumber: Loan number must not be empty");
+
+    loanDto.setLoanNumber("12345");
+    loanDto.setMobileNumber("INVALID");
+    assertThat(messages(validator.validate(loanDto)))
+        .containsExactlyInAnyOrder("loanNumber: Loan number must be 12 digits",
+            "mobileNumber: Mobile number must be valid");
+  }
+
+  private static void assertSameForAll(List<String> inputs, Pattern pattern, Predicate<String> validator) {
+
+    for (var input : inputs) {
+      assertThat(validator.test(input))
+          .as("%s for \"%s\"", pattern, input.replace("\n", "\\n").replace("\r", "\\r"))
+          .isEqualTo(pattern.matcher(input).matches());
+    }
+  }
+
+  private static List<String> messages(Set<? extends ConstraintViolation<?>> violations) {
+    return violations.stream().map(v -> v.getPropertyPath() + ": " + v.getMessage()).toList();
+  }
+
+  // all strings over the alphabet up to the given length
+  private static List<String> allStrings(int maxLength) {
+
+    var strings = new ArrayList<String>();
+    strings.add("");
+    var previous = List.of("");
+    for (int length = 1; length <= maxLength; length++) {
+      var next = new ArrayList<String>();
+      for (var prefix : previous) {
+        for (var c : ALPHABET) {
+          next.add(prefix + c);
+        }
+      }
+      strings.addAll(next);
+      previous = next;
+    }
+    return strings;
+  }
+
+  private String randomString(int maxLength) {
+
+    var length = random.nextInt(maxLength + 1);
+    var builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+    }
+    return builder.toString();
+  }
+
+  private String digits(int length) {
+
+    var builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append((char) ('0' + random.nextInt(10)));
+    }
+    return builder.toString();
+  }
+
+  // valid input changed in one place - inserted, removed or replaced character, or unchanged
+  private String mutate(String valid) {
+
+    var builder = new StringBuilder(valid);
+    var position = random.nextInt(valid.length() + 1);
+    var c = ALPHABET[random.nextInt(ALPHABET.length)];
+    switch (random.nextInt(4)) {
+      case 0 -> builder.insert(position, c);
+      case 1 -> {
+        if (position < builder.length()) {
+          builder.deleteCharAt(position);
+        }
+      }
+      case 2 -> {
+        if (position < builder.length()) {
+          builder.setCharAt(position, c);
+        }
+      }
+      default -> {
+      }
+    }
+    return builder.toString();
+  }
+}